@@ -1,15 +1,37 @@
 package micycle.peasygradients;
 
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
-
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import micycle.peasygradients.colorspace.ColorSpace;
+import micycle.peasygradients.gradient.CompiledGradient;
 import micycle.peasygradients.gradient.Gradient;
+import micycle.peasygradients.utilities.BlendMode;
+import micycle.peasygradients.utilities.ClipShape;
+import micycle.peasygradients.utilities.ColorUtils;
+import micycle.peasygradients.utilities.DitherType;
 import micycle.peasygradients.utilities.FastNoiseLite;
 import micycle.peasygradients.utilities.FastNoiseLite.CellularDistanceFunction;
 import micycle.peasygradients.utilities.FastNoiseLite.CellularReturnType;
@@ -17,6 +39,7 @@ import micycle.peasygradients.utilities.FastNoiseLite.FractalType;
 import micycle.peasygradients.utilities.FastNoiseLite.NoiseType;
 import micycle.peasygradients.utilities.FastPow;
 import micycle.peasygradients.utilities.Functions;
+import micycle.peasygradients.utilities.Interpolation;
 import micycle.uniformnoise.UniformNoise;
 import net.jafama.FastMath;
 import processing.core.PApplet;
@@ -74,7 +97,128 @@ public final class PeasyGradients {
 	private static final double THREE_QRTR_PI = (0.75 * Math.PI);
 	private static final double DEFAULT_DITHER = 0.01;
 
-	private static final ExecutorService THREAD_POOL;
+	/**
+	 * Tiles are at least this many pixels (64x64), so that the per-tile scheduling
+	 * overhead stays negligible relative to the rendering work of the tile.
+	 */
+	private static final int MIN_TILE_AREA = 64 * 64;
+	/**
+	 * Tiles are at most this many pixels (256x256), so that the working set of a
+	 * tile fits within a core's L2 cache.
+	 */
+	private static final int MAX_TILE_AREA = 256 * 256;
+	/**
+	 * Number of tiles to aim for per pool thread; more tiles than threads lets idle
+	 * threads steal work from threads whose tiles are more costly.
+	 */
+	private static final int TILES_PER_THREAD = 8;
+	/**
+	 * Tile widths are split at multiples of this many pixels (one 64-byte cache
+	 * line of ARGB ints), so that neighbouring tiles don't share cache lines.
+	 */
+	private static final int TILE_ALIGN = 16;
+	/**
+	 * Default render cost (pixel count multiplied by the kernel's per-pixel cost
+	 * factor) below which gradients are rendered on the calling thread. Roughly a
+	 * 128x128 linear gradient.
+	 */
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 128 * 128;
+	/**
+	 * Step drift (in LUT indices) across a linear gradient render below which it is
+	 * treated as axis-aligned.
+	 */
+	private static final double AXIS_ALIGNED_DRIFT = 0.01;
+	/**
+	 * Tolerance used when testing whether a rotation is a multiple of pi/4, or
+	 * whether a mirror axis lies on a pixel or half-pixel boundary.
+	 */
+	private static final double SYMMETRY_EPSILON = 1e-6;
+	/**
+	 * Interval (a power of 2) between the columns at which kernels that step along
+	 * rows by forward differencing recompute their step exactly. Stepping always
+	 * starts from the anchor column at or before a span's first column, so the
+	 * step of a pixel doesn't depend on where its tile (or span) begins. Equal to
+	 * the tile alignment, so tiles begin on an anchor column.
+	 */
+	private static final int STEP_ANCHOR = TILE_ALIGN;
+	/** Marks a kernel axis that has no mirror symmetry. */
+	private static final int NO_MIRROR = Integer.MIN_VALUE;
+	/**
+	 * LUTs larger than this can't be indexed by a retained step field (of 16-bit
+	 * indices).
+	 */
+	private static final int MAX_STEP_FIELD_LUT_SIZE = Character.MAX_VALUE + 1;
+	/**
+	 * When anti-aliasing, pixels whose color differs from that of a neighbouring
+	 * pixel by more than this much (in any channel) are supersampled.
+	 */
+	private static final int EDGE_THRESHOLD = 12;
+	/** Max number of anti-aliasing samples per pixel axis. */
+	private static final int MAX_ANTI_ALIASING = 8;
+	/** Max factor by which preview renders reduce the resolution of step fields. */
+	private static final int MAX_PREVIEW_DOWNSCALE = 8;
+	/**
+	 * When compositing, tiles are rendered in bands of this many rows, so that the
+	 * destination pixels saved before a band is rendered stay in cache.
+	 */
+	private static final int COMPOSITE_BAND_HEIGHT = 16;
+	/** Number of polygon ratio lookup tables kept by {@link #POLYGON_LUT_CACHE}. */
+	private static final int POLYGON_LUT_CACHE_SIZE = 8;
+
+	/**
+	 * Work-stealing pool owned by the library, shared across all PeasyGradient
+	 * instances that haven't been given an executor. Created lazily (on the first
+	 * render that needs it) and discarded by {@link #shutdown()}.
+	 */
+	private static ForkJoinPool threadPool;
+	/**
+	 * User-supplied executor used in place of the library's pool by instances that
+	 * haven't been given their own executor.
+	 */
+	private static volatile ExecutorService defaultExecutor;
+	/**
+	 * Threads that run asynchronous renders (each of which splits its tiles across
+	 * the executor as usual), and the thread that enforces their deadlines. Created
+	 * lazily and discarded by {@link #shutdown()}.
+	 */
+	private static ExecutorService asyncExecutor;
+	private static ScheduledExecutorService deadlineScheduler;
+	/**
+	 * The pending asynchronous render of each render target (if any), across all
+	 * instances. Guarded by its own lock.
+	 */
+	private static final Map<PImage, CompletableFuture<PImage>> PENDING_RENDERS = new WeakHashMap<>();
+
+	/**
+	 * Per-thread scratch array that kernels write row steps into (reused across
+	 * tiles and renders to avoid garbage).
+	 */
+	private static final ThreadLocal<double[]> STEP_BUFFER = ThreadLocal.withInitial(() -> new double[0]);
+	/**
+	 * Per-thread scratch array holding the destination pixels of a band of a tile,
+	 * when compositing.
+	 */
+	private static final ThreadLocal<int[]> BACKDROP_BUFFER = ThreadLocal.withInitial(() -> new int[0]);
+	/**
+	 * Per-thread scratch rows (of steps, and of colors or indices), for tile
+	 * renderers that need several rows at once.
+	 */
+	private static final ThreadLocal<double[][]> STEP_ROWS = ThreadLocal.withInitial(() -> new double[0][]);
+	private static final ThreadLocal<int[][]> INT_ROWS = ThreadLocal.withInitial(() -> new int[0][]);
+
+	/**
+	 * Least-recently-used cache of polygon ratio lookup tables, shared across all
+	 * PeasyGradient instances (tables are never modified once built). Guarded by
+	 * its own lock.
+	 */
+	private static final Map<PolygonLutKey, double[]> POLYGON_LUT_CACHE = new LinkedHashMap<PolygonLutKey, double[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<PolygonLutKey, double[]> eldest) {
+			return size() > POLYGON_LUT_CACHE_SIZE;
+		}
+	};
 
 	private static final int cpuThreads = Runtime.getRuntime().availableProcessors();
 
@@ -84,16 +228,11 @@ public final class PeasyGradients {
 		 * JAB+ITP_fast requires high value
 		 */
 		FastPow.init(11);
-
-		/**
-		 * Create a static thread pool (shared across all PeasyGradient instances), with
-		 * at most #systemCores threads.
-		 */
-		THREAD_POOL = Executors.newFixedThreadPool(cpuThreads);
 	}
 
-	private final FastNoiseLite fastNoiseLite = new FastNoiseLite(0); // create noise generator using a fixed default seed (0)
+	private final FastNoiseLite fastNoiseLite = newNoiseGenerator(0); // create noise generator using a fixed default seed (0)
 	private final UniformNoise uniformNoise = new UniformNoise(0);
+	private int noiseSeed = 0;
 
 //	int colorMode = PConstants.RGB; // TODO colour mode in this class?
 	private PImage gradientPG; // reference to the PGraphics object to render gradients into
@@ -101,22 +240,110 @@ public final class PeasyGradients {
 	private int[] gradientCache; // a cache to store gradient colors (ARGB ints)
 	private int gradientCacheSize; // size of cache
 
+	/*
+	 * The LUT sampled from the gradient at an offset of 0; gradientCache is this,
+	 * rotated by the gradient's offset.
+	 */
+	private int[] baseLut;
+
+	/*
+	 * The gradient (and state of the gradient, ignoring its offset) that baseLut
+	 * was last computed from, and the array it was computed for, so the base LUT is
+	 * only recomputed when the gradient or LUT changes; and the offset
+	 * gradientCache was last rotated to.
+	 */
+	private Gradient lutGradient;
+	private long lutGradientVersion;
+	private ColorSpace lutColorSpace;
+	private Interpolation lutInterpolation;
+	private int[] lutArray;
+	private double lutOffset;
+
+	private boolean posterised = false;
+	private boolean perPixelSampling = false;
+	/*
+	 * The gradient to sample at every pixel during the current render, when
+	 * sampling per pixel (rather than from the LUT); otherwise null.
+	 */
+	private CompiledGradient pixelGradient;
+
+	private boolean retainStepField = false;
+	/*
+	 * The retained step field: the dithered LUT index of every pixel of the render
+	 * region from the last render, and the kernel type, kernel parameters, dither
+	 * offsets and LUT size it was recorded with (stepFieldKey is null when there is
+	 * no valid field).
+	 */
+	private char[] stepField;
+	private Class<?> stepFieldKernel;
+	private Object[] stepFieldKey;
+	private int[] stepFieldDither;
+	private int stepFieldLutSize;
+
+	private boolean cachePolarFields = false;
+	/*
+	 * Per-pixel angle (about a center) and spiral radius term fields, cached
+	 * between conic and spiral renders about the same center.
+	 */
+	private PolarField angleField, radiusField;
+
+	private int antiAliasing = 1; // samples per pixel axis at color edges; 1 when not anti-aliasing
+
+	private boolean sourceOver = false; // composite gradients over the target's pixels, rather than replace them
+	private boolean premultiplied = false; // whether the target's pixels have premultiplied alpha
+
+	private int previewDownscale = 1; // factor by which step fields are downscaled; 1 when not previewing
+	private RenderKernel previewKernel; // kernel of the most recent render, if it was a preview; otherwise null
+	private Gradient previewGradient; // gradient of the most recent render, if it was a preview
+
+	private ClipShape clipShape; // null when not clipping
+	private int[][] clipSpans; // spans of the clip shape for each row of the render region, relative to it; null until computed
+
+	private boolean interactive = false;
+
+	private List<Layer> layers; // null unless recording layers
+	private BlendMode layerBlendMode = BlendMode.NORMAL;
+	private int layerOpacity = 255;
+	private TranslationField translationField; // null until an interactive render
+
+	/*
+	 * The back buffer not in use by an asynchronous render; and whether this
+	 * renderer's asynchronous render has been abandoned.
+	 */
+	private final AtomicReference<PImage> spareBuffer = new AtomicReference<>();
+	private volatile boolean abandoned = false;
+
 	private int renderHeight, renderWidth; // gradient region dimensions (usually the dimensions of gradientPG)
 	private int renderOffsetX, renderOffsetY; // gradient region offsets (usually 0, 0)
 	private double scaleY, scaleX;
 
 	private double ditherStrength = DEFAULT_DITHER;
+	private DitherType ditherType = DitherType.INTERLEAVED_GRADIENT_NOISE;
+
+	/*
+	 * The dither texture, pre-scaled to offsets in LUT-index units (null when not
+	 * dithering), and the parameters it was built from.
+	 */
+	private int[] ditherOffsets;
+	private int ditherMask, ditherShift;
+	private DitherType ditherOffsetsType;
+	private double ditherOffsetsStrength;
+	private int ditherOffsetsLutSize;
 
 	/**
-	 * Number of horizontal strips the plane is paritioned into for threaded
-	 * rendering.
+	 * Max number of pixels per tile for threaded rendering; when 0, the tile size
+	 * adapts to the size of the render region.
 	 */
-	private int renderStrips = (int) Math.min(Math.max(cpuThreads * 0.75, 1), 10); // 1..10 strips
-	
-	void setRenderStrips(int renderStrips) {
-		this.renderStrips = renderStrips;
+	private int tileArea = 0;
+
+	void setTileArea(int tileArea) {
+		this.tileArea = tileArea;
 	}
 
+	private ExecutorService executor; // when null, use the default executor
+	private boolean callerRuns = false;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
 	/**
 	 * Constructs a new PeasyGradients renderer from a running Processing sketch;
 	 * gradients will be rendered directly into the sketch.
@@ -145,9 +372,47 @@ public final class PeasyGradients {
 	 * gradient is drawn).
 	 */
 	public PeasyGradients() {
-		fastNoiseLite.SetCellularReturnType(CellularReturnType.Distance2Div);
-		fastNoiseLite.SetCellularDistanceFunction(CellularDistanceFunction.EuclideanSq);
-		fastNoiseLite.SetFractalPingPongStrength(1);
+	}
+
+	/**
+	 * Constructs a renderer having the settings of another renderer, rendering into
+	 * the same region of the given image (which has the same dimensions as the
+	 * other renderer's target). Used to record and render asynchronous renders
+	 * independently of the other renderer.
+	 */
+	private PeasyGradients(PeasyGradients settings, PImage target) {
+		setRenderTarget(target, settings.renderOffsetX, settings.renderOffsetY, settings.renderWidth, settings.renderHeight);
+		if (settings.posterised) {
+			posterise(settings.gradientCacheSize);
+		}
+		ditherStrength = settings.ditherStrength;
+		ditherType = settings.ditherType;
+		perPixelSampling = settings.perPixelSampling;
+		setNoiseSeed(settings.noiseSeed);
+		sourceOver = settings.sourceOver;
+		premultiplied = settings.premultiplied;
+		clipShape = settings.clipShape;
+		executor = settings.executor;
+		callerRuns = settings.callerRuns;
+		parallelThreshold = settings.parallelThreshold;
+		tileArea = settings.tileArea;
+	}
+
+	private static FastNoiseLite newNoiseGenerator(int seed) {
+		final FastNoiseLite noise = new FastNoiseLite(seed);
+		noise.SetCellularReturnType(CellularReturnType.Distance2Div);
+		noise.SetCellularDistanceFunction(CellularDistanceFunction.EuclideanSq);
+		noise.SetFractalPingPongStrength(1);
+		return noise;
+	}
+
+	/**
+	 * @return the noise generator to configure for a noise gradient: this
+	 *         renderer's own, or a new one (having the same seed) when recording
+	 *         layers, so that each noise layer keeps its own configuration
+	 */
+	private FastNoiseLite noiseGenerator() {
+		return layers == null ? fastNoiseLite : newNoiseGenerator(noiseSeed);
 	}
 
 	/**
@@ -226,6 +491,101 @@ public final class PeasyGradients {
 
 		gradientCacheSize = (3 * Math.max(renderWidth, renderHeight));
 		gradientCache = new int[gradientCacheSize];
+		posterised = false;
+		invalidateStepField();
+		clipSpans = null;
+		previewKernel = null;
+	}
+
+	/**
+	 * Sets the executor that this renderer splits its rendering work across,
+	 * overriding the default executor.
+	 * <p>
+	 * A {@link ForkJoinPool} will have the render region's tiles balanced across
+	 * its threads by work-stealing; any other executor is submitted one task per
+	 * tile. The executor is never shut down by PeasyGradients. Supply a pool with
+	 * a limited number of threads to cap the CPU usage of gradient rendering.
+	 * <p>
+	 * If the calling thread is interrupted while waiting for the tiles of such an
+	 * executor, the outstanding tiles are cancelled and the gradient method throws
+	 * a {@link CancellationException} (the render target is left partly
+	 * rendered, and not updated).
+	 * 
+	 * @param executor executor to render with, or <code>null</code> to revert to
+	 *                 the default executor
+	 * @see #setDefaultExecutor(ExecutorService)
+	 * @see #setCallerRuns(boolean)
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets whether this renderer renders gradients entirely on the thread that
+	 * calls the gradient method (using no executor at all). This is suitable when
+	 * PeasyGradients is embedded within an existing worker thread that should not
+	 * hand work off to another pool.
+	 * 
+	 * @param callerRuns true to render on the calling thread; false (the default)
+	 *                   to split rendering work across the executor
+	 * @see #setExecutor(ExecutorService)
+	 */
+	public void setCallerRuns(boolean callerRuns) {
+		this.callerRuns = callerRuns;
+	}
+
+	/**
+	 * Sets the render cost below which gradients are rendered inline on the calling
+	 * thread, rather than being split across the executor.
+	 * <p>
+	 * The cost of a render is its pixel count multiplied by a cost factor of the
+	 * gradient type: 1 for the simplest types (such as linear and radial), more for
+	 * types that do more work per pixel (such as conic and noise). For small
+	 * targets (such as UI swatches and thumbnails), handing work off to other
+	 * threads costs more than rendering it directly.
+	 * 
+	 * @param threshold render cost threshold. Default is 16384 (a 128x128 linear
+	 *                  gradient); 0 always splits work across the executor.
+	 */
+	public void setParallelThreshold(int threshold) {
+		parallelThreshold = Math.max(0, threshold);
+	}
+
+	/**
+	 * Sets the executor used by every PeasyGradients instance that hasn't been
+	 * given its own executor via {@link #setExecutor(ExecutorService)}. By default,
+	 * a work-stealing pool owned by the library (having one daemon thread per
+	 * core) is used.
+	 * <p>
+	 * The executor is never shut down by PeasyGradients.
+	 * 
+	 * @param executor executor to render with, or <code>null</code> to revert to
+	 *                 the library's own pool
+	 */
+	public static void setDefaultExecutor(ExecutorService executor) {
+		defaultExecutor = executor;
+	}
+
+	/**
+	 * Shuts down the thread pool owned by the library (and its threads that run
+	 * asynchronous renders), such that its threads terminate once any in-progress
+	 * renders complete (for example, when a container undeploys the application).
+	 * Executors supplied by the user are unaffected.
+	 * <p>
+	 * Should a gradient later be rendered using the library's pool, a new pool is
+	 * created for it.
+	 */
+	public static synchronized void shutdown() {
+		if (threadPool != null) {
+			threadPool.shutdown();
+			threadPool = null;
+		}
+		if (asyncExecutor != null) {
+			asyncExecutor.shutdown();
+			asyncExecutor = null;
+			deadlineScheduler.shutdown();
+			deadlineScheduler = null;
+		}
 	}
 
 	/**
@@ -235,6 +595,7 @@ public final class PeasyGradients {
 	 */
 	public void setNoiseSeed(int seed) {
 		fastNoiseLite.SetSeed(seed);
+		noiseSeed = seed;
 	}
 
 	/**
@@ -265,6 +626,462 @@ public final class PeasyGradients {
 		ditherStrength = strength;
 	}
 
+	/**
+	 * Sets the dither pattern that is used when dithering is enabled (when the
+	 * dither strength is more than 0).
+	 * 
+	 * @param ditherType Default is
+	 *                   {@link DitherType#INTERLEAVED_GRADIENT_NOISE}.
+	 * @see #setDitherStrength(double)
+	 */
+	public void setDitherType(DitherType ditherType) {
+		this.ditherType = ditherType;
+	}
+
+	/**
+	 * Sets whether gradients are rendered by evaluating the 1D gradient at every
+	 * pixel, rather than by looking up the nearest of a table of colors sampled
+	 * from the gradient beforehand (the default).
+	 * <p>
+	 * Per-pixel sampling gives exact colors at any resolution, and skips sampling
+	 * the color table when the gradient changes, but costs more per pixel. It is
+	 * cheapest for gradients in the {@link ColorSpace#RGB RGB} color space, whose
+	 * colors are interpolated with integer arithmetic. Posterisation requires the
+	 * color table, so this setting has no effect while posterised.
+	 * 
+	 * @param perPixelSampling true to sample the gradient at every pixel; false
+	 *                         (default) to use a color table
+	 * @see #posterise(int)
+	 */
+	public void setPerPixelSampling(boolean perPixelSampling) {
+		this.perPixelSampling = perPixelSampling;
+	}
+
+	/**
+	 * Sets whether this renderer retains the step field of the last gradient it
+	 * rendered: the (dithered) index into its color table of every pixel. When the
+	 * next gradient is of the same type with the same geometry (center, angle,
+	 * zoom, etc.), render target and dither settings, its pixels are then colored
+	 * by looking up their retained indices, skipping the per-pixel step
+	 * computation altogether.
+	 * <p>
+	 * This suits animations that change the colors of a gradient (such as by
+	 * animating its offset or mutating its stops) but not its shape, particularly
+	 * for the more costly gradient types such as noise. The field takes 2 bytes per
+	 * pixel. It is recomputed whenever the geometry, render target or dither
+	 * settings change. Fields are not retained while
+	 * {@link #setPerPixelSampling(boolean) sampling per pixel}.
+	 * 
+	 * @param retainStepField true to retain the step field between renders; false
+	 *                        (default) to compute every pixel's step on every
+	 *                        render
+	 * @see #invalidateStepField()
+	 */
+	public void setStepFieldRetention(boolean retainStepField) {
+		this.retainStepField = retainStepField;
+		if (!retainStepField) {
+			stepField = null; // release memory
+			invalidateStepField();
+		}
+	}
+
+	/**
+	 * Discards the retained step field (if any), so that the next render computes
+	 * the step of every pixel afresh.
+	 * <p>
+	 * The field is invalidated automatically when the gradient geometry, render
+	 * target or dither settings change, so there is usually no need to call this.
+	 * 
+	 * @see #setStepFieldRetention(boolean)
+	 */
+	public void invalidateStepField() {
+		stepFieldKey = null;
+	}
+
+	/**
+	 * Sets whether this renderer caches the angle (and, for spirals, the distance
+	 * term) of every pixel about the center of conic and spiral gradients.
+	 * <p>
+	 * While the center point and render region size stay the same, changing the
+	 * angle of a conic gradient only shifts every pixel's step by the same amount,
+	 * and changing the curve count of a spiral only scales its distance term. With
+	 * caching, such renders cost an addition (or a multiply-add) per pixel rather
+	 * than an arctangent, which suits spinning conic or twisting spiral
+	 * animations. Each cached field takes 4 bytes per pixel, and is held in single
+	 * precision.
+	 * 
+	 * @param cachePolarFields true to cache per-pixel angle and distance fields;
+	 *                         false (default) to compute them on every render
+	 * @see #conicGradient(Gradient, PVector, double)
+	 * @see #spiralGradient(Gradient, PVector, double, double, double)
+	 */
+	public void setPolarFieldCaching(boolean cachePolarFields) {
+		this.cachePolarFields = cachePolarFields;
+		if (!cachePolarFields) {
+			angleField = null; // release memory
+			radiusField = null;
+		}
+	}
+
+	/**
+	 * Sets the level of adaptive anti-aliasing, which smooths the jagged edges
+	 * between color bands of posterised gradients and gradients having hard (or
+	 * near-coincident) color stops.
+	 * <p>
+	 * Only pixels whose color differs markedly from that of a neighbouring pixel
+	 * are supersampled, so the cost of anti-aliasing is proportional to the length
+	 * of the edges, rather than the area of the gradient. The steps of a pixel's
+	 * samples are interpolated from the steps of it and its neighbours, and the
+	 * colors of the samples are averaged.
+	 * 
+	 * @param samples number of samples per pixel axis at color edges (so a pixel
+	 *                is supersampled with <code>samples * samples</code> samples),
+	 *                between 1 and 8. Default is 1 (no anti-aliasing); 4 suits
+	 *                most uses.
+	 */
+	public void setAntiAliasing(int samples) {
+		antiAliasing = Math.max(1, Math.min(MAX_ANTI_ALIASING, samples));
+	}
+
+	/**
+	 * Sets the preview quality, which trades exactness for speed (such as while a
+	 * gradient is being edited interactively). In preview quality, the step field
+	 * of a gradient (each pixel's position along the 1D gradient) is computed at a
+	 * reduced resolution, and bilinearly upsampled to full resolution before the
+	 * color of each pixel is looked up. Dithering is still applied at full
+	 * resolution, so color banding stays hidden.
+	 * <p>
+	 * Gradients are smooth almost everywhere, so previews differ little from full
+	 * renders, other than at sharp features (such as the center of a conic
+	 * gradient). Call {@link #refine()} once editing pauses to re-render the most
+	 * recent preview at full resolution.
+	 * <p>
+	 * Only the computation of steps is reduced (coloring each pixel costs the
+	 * same), so previews most benefit costly gradient types, such as noise
+	 * gradients.
+	 * <p>
+	 * Layers, gradients composited in source-over mode and gradients clipped to a
+	 * shape are always rendered at full resolution (clipped gradients are rendered
+	 * a row at a time, which leaves no rows for previews to interpolate between).
+	 * 
+	 * @param downscale factor by which to reduce the resolution of step fields: 1
+	 *                  (default) for full quality, or 2, 4 or 8 for preview quality
+	 *                  at 1/2, 1/4 or 1/8 resolution (along each axis). Other
+	 *                  values are rounded down to one of these
+	 * @see #refine()
+	 */
+	public void setPreviewQuality(int downscale) {
+		previewDownscale = Integer.highestOneBit(Math.max(1, Math.min(MAX_PREVIEW_DOWNSCALE, downscale)));
+	}
+
+	/**
+	 * Re-renders the most recent gradient at full resolution, if it was rendered
+	 * as a preview (since the render target was last set); otherwise does nothing.
+	 * This progressively refines a preview: a coarse preview is shown first, then
+	 * replaced by the exact gradient.
+	 * 
+	 * @see #setPreviewQuality(int)
+	 */
+	public void refine() {
+		final RenderKernel kernel = previewKernel;
+		if (kernel == null) {
+			return;
+		}
+		final int downscale = previewDownscale;
+		previewDownscale = 1;
+		try {
+			render(previewGradient, kernel);
+		} finally {
+			previewDownscale = downscale;
+		}
+		gradientPG.updatePixels();
+	}
+
+	/**
+	 * Sets whether gradients are composited over the existing pixels of the render
+	 * target according to the alpha of their colors (Porter-Duff source-over),
+	 * rather than replacing them (the default). A translucent gradient can then be
+	 * overlaid onto a sketch directly, without rendering it into a separate image
+	 * and blending that afterwards.
+	 * <p>
+	 * Compositing is done in place as each tile is rendered, matching Processing's
+	 * <code>BLEND</code> mode.
+	 * 
+	 * @param sourceOver true to composite gradients over the target's pixels;
+	 *                   false (default) to replace them
+	 * @see #setSourceOver(boolean, boolean)
+	 */
+	public void setSourceOver(boolean sourceOver) {
+		setSourceOver(sourceOver, false);
+	}
+
+	/**
+	 * Sets whether gradients are composited over the existing pixels of the render
+	 * target according to the alpha of their colors (Porter-Duff source-over),
+	 * rather than replacing them (the default).
+	 * 
+	 * @param sourceOver    true to composite gradients over the target's pixels;
+	 *                      false (default) to replace them
+	 * @param premultiplied true if the target's pixels have premultiplied alpha, in
+	 *                      which case composited pixels are premultiplied too
+	 * @see #setSourceOver(boolean)
+	 */
+	public void setSourceOver(boolean sourceOver, boolean premultiplied) {
+		this.sourceOver = sourceOver;
+		this.premultiplied = premultiplied;
+	}
+
+	/**
+	 * Clips subsequent gradients to a shape, such as a circle or polygon: only
+	 * pixels of the render region covered by the shape are rendered, leaving other
+	 * pixels untouched. Pixels outside the shape are never evaluated, so clipping
+	 * is cheaper than rendering the whole region and masking it afterwards.
+	 * <p>
+	 * A {@link ClipShape#mask(PImage) mask} clip shape also applies its coverage to
+	 * the alpha of the pixels it covers.
+	 * 
+	 * @param clipShape shape to clip gradients to, in the pixel coordinates of the
+	 *                  render target
+	 * @see #clearClipShape()
+	 */
+	public void setClipShape(ClipShape clipShape) {
+		this.clipShape = clipShape;
+		clipSpans = null;
+	}
+
+	/**
+	 * Removes the clip shape (if any), so that gradients again fill the whole
+	 * render region.
+	 * 
+	 * @see #setClipShape(ClipShape)
+	 */
+	public void clearClipShape() {
+		setClipShape(null);
+	}
+
+	/**
+	 * Begins recording a stack of gradient layers. Until {@link #endLayers()} is
+	 * called, each gradient method (such as
+	 * {@link #radialGradient(Gradient, PVector, double) radialGradient()}) records
+	 * its gradient as a new layer atop the stack, rather than rendering it.
+	 * {@link #endLayers()} then renders every layer in a single pass, evaluating
+	 * all layers at each pixel and writing the pixel once, which is much cheaper
+	 * than rendering each layer over the last.
+	 * <p>
+	 * Each layer is blended onto the layers beneath it according to the blend mode
+	 * and opacity set (via {@link #setLayerBlend(BlendMode, double)}) when it was
+	 * recorded; the bottom layer replaces the target's pixels as a gradient
+	 * rendered alone does. Layers are rendered with the LUT, dither and sampling
+	 * settings in effect when they were recorded, but without anti-aliasing.
+	 * 
+	 * @see #endLayers()
+	 */
+	public void beginLayers() {
+		layers = new ArrayList<>();
+		layerBlendMode = BlendMode.NORMAL;
+		layerOpacity = 255;
+	}
+
+	/**
+	 * Sets the blend mode and opacity of layers recorded from now on, until
+	 * {@link #endLayers()}.
+	 * 
+	 * @param blendMode how layers are blended onto the layers beneath them.
+	 *                  Default is {@link BlendMode#NORMAL}.
+	 * @param opacity   opacity of layers, between 0 and 1 (default), which
+	 *                  multiplies the alpha of their gradient colors
+	 * @see #beginLayers()
+	 */
+	public void setLayerBlend(BlendMode blendMode, double opacity) {
+		layerBlendMode = blendMode;
+		layerOpacity = (int) Math.round(Math.max(0, Math.min(1, opacity)) * 255);
+	}
+
+	/**
+	 * Stops recording layers, and renders the recorded stack of layers (if any)
+	 * into the render target, in a single pass.
+	 * 
+	 * @see #beginLayers()
+	 */
+	public void endLayers() {
+		final List<Layer> stack = layers;
+		layers = null;
+		if (stack == null || stack.isEmpty()) {
+			return;
+		}
+		endLayers(stack);
+		if (clipShape == null) { // (when clipped, steps were computed only within the clip shape)
+			for (Layer layer : stack) {
+				layer.kernel.stepsComputed();
+			}
+		}
+		gradientPG.updatePixels();
+	}
+
+	/**
+	 * Renders a recorded stack of layers into the render target.
+	 */
+	private void endLayers(List<Layer> stack) {
+		int cost = 0;
+		for (Layer layer : stack) {
+			cost += layer.kernel.cost();
+		}
+		renderTiles(new LayerStack(stack.toArray(new Layer[0])), cost);
+	}
+
+	/**
+	 * Renders gradients asynchronously, without blocking the calling thread (such
+	 * as a sketch's animation thread). The given action calls gradient methods (of
+	 * the renderer passed to it, which has this renderer's settings and render
+	 * target) as usual, such as:
+	 * 
+	 * <pre>
+	 * pg.renderAsync(r -&gt; r.radialGradient(gradient, center, 1));
+	 * </pre>
+	 * 
+	 * The gradients are recorded as layers, as by {@link #beginLayers()} (so
+	 * several may be blended together, but none are anti-aliased), on the calling
+	 * thread; they are then rendered on a background thread into a back buffer the
+	 * size of the render target. Once rendered, the back buffer is swapped with the
+	 * target's pixels array (so the target never shows a partly rendered gradient)
+	 * and the returned future completes. Since Processing isn't thread-safe, the
+	 * target isn't updated: call its <code>updatePixels()</code> from the sketch's
+	 * thread after the future completes, before drawing it.
+	 * <p>
+	 * Where the gradients don't replace every pixel of the target (when rendering
+	 * a region, clipping, or compositing source-over), the back buffer starts as
+	 * a copy of the target's pixels, taken on the calling thread before this
+	 * method returns. Changes made to the target's pixels after that are lost
+	 * when the back buffer is swapped in.
+	 * <p>
+	 * A newer asynchronous render of the same target (by any renderer) supersedes
+	 * a pending one, which is abandoned part-way through rendering and its future
+	 * cancelled. Likewise, cancelling the future abandons its render.
+	 * 
+	 * @param gradients action that calls the gradient methods of the given
+	 *                  renderer
+	 * @return future that completes with the render target once its pixels have
+	 *         been swapped with the rendered back buffer
+	 * @see #renderAsync(Consumer, long, TimeUnit)
+	 */
+	public CompletableFuture<PImage> renderAsync(Consumer<PeasyGradients> gradients) {
+		if (layers != null) {
+			throw new IllegalStateException("Cannot render asynchronously while recording layers");
+		}
+		final PImage target = gradientPG;
+		PImage buffer = spareBuffer.getAndSet(null);
+		if (buffer == null || buffer.width != target.width || buffer.height != target.height) {
+			buffer = new PImage(target.width, target.height);
+		}
+		final PeasyGradients renderer = new PeasyGradients(this, buffer);
+		renderer.beginLayers();
+		gradients.accept(renderer);
+		final List<Layer> stack = renderer.layers;
+		renderer.layers = null;
+		if (stack.isEmpty()) {
+			spareBuffer.set(buffer);
+			return CompletableFuture.completedFuture(target);
+		}
+
+		final boolean partial = renderer.sourceOver || renderer.clipShape != null
+				|| renderer.renderWidth != target.width || renderer.renderHeight != target.height;
+		if (partial) { // some pixels aren't replaced, so start from a snapshot taken on this thread
+			System.arraycopy(target.pixels, 0, buffer.pixels, 0, buffer.pixels.length);
+		}
+
+		final CompletableFuture<PImage> future = new CompletableFuture<>();
+		// abandon the render if the future is cancelled or times out
+		future.whenComplete((image, e) -> {
+			renderer.abandoned = true;
+			synchronized (PENDING_RENDERS) {
+				PENDING_RENDERS.remove(target, future);
+			}
+		});
+		final CompletableFuture<PImage> superseded;
+		synchronized (PENDING_RENDERS) {
+			superseded = PENDING_RENDERS.put(target, future);
+		}
+		if (superseded != null) {
+			superseded.cancel(false);
+		}
+
+		final PImage backBuffer = buffer;
+		asyncExecutor().execute(() -> {
+			try {
+				if (!renderer.abandoned) {
+					renderer.endLayers(stack);
+				}
+				synchronized (PENDING_RENDERS) {
+					if (renderer.abandoned || PENDING_RENDERS.get(target) != future) {
+						return; // (future already completed)
+					}
+					final int[] front = target.pixels;
+					target.pixels = backBuffer.pixels;
+					backBuffer.pixels = front;
+					if (!future.complete(target)) { // cancelled or timed out meanwhile: restore the target
+						backBuffer.pixels = target.pixels;
+						target.pixels = front;
+					}
+				}
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			} finally {
+				spareBuffer.set(backBuffer);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Renders gradients asynchronously, as {@link #renderAsync(Consumer)} does,
+	 * abandoning the render if it doesn't complete within the given time (in which
+	 * case the returned future completes exceptionally with a
+	 * {@link TimeoutException}, and the render target is left unchanged).
+	 * 
+	 * @param gradients action that calls the gradient methods of the given
+	 *                  renderer
+	 * @param timeout   how long to allow the render, from now
+	 * @param unit      unit of the timeout
+	 * @return future that completes with the render target once its pixels have
+	 *         been swapped with the rendered back buffer
+	 * @see #renderAsync(Consumer)
+	 */
+	public CompletableFuture<PImage> renderAsync(Consumer<PeasyGradients> gradients, long timeout, TimeUnit unit) {
+		final CompletableFuture<PImage> future = renderAsync(gradients);
+		if (!future.isDone()) {
+			final ScheduledFuture<?> deadline = deadlineScheduler().schedule(
+					() -> future.completeExceptionally(new TimeoutException("Gradient render missed its deadline")), timeout, unit);
+			future.whenComplete((image, e) -> deadline.cancel(false));
+		}
+		return future;
+	}
+
+	/**
+	 * Sets whether this renderer is in interactive mode, which speeds up
+	 * re-rendering radial, diamond and polygon gradients whose center point is
+	 * being moved (such as when dragging it in an editor).
+	 * <p>
+	 * In interactive mode, such a gradient is rendered once over an area twice the
+	 * width and height of the render region, centered on the gradient. While only
+	 * its center point changes, later renders copy the appropriate window of that
+	 * area into the render target, row by row, until the center moves far enough
+	 * that the window would fall outside it. Windows are positioned to the nearest
+	 * whole pixel, so gradient centers snap to the pixel grid of the first render.
+	 * The area takes 16 bytes per pixel of the render region.
+	 * 
+	 * @param interactive true to enable interactive mode; false (default) to
+	 *                    render every pixel of every gradient afresh
+	 * @see #radialGradient(Gradient, PVector, double)
+	 * @see #diamondGradient(Gradient, PVector, double, double)
+	 * @see #polygonGradient(Gradient, PVector, double, double, int)
+	 */
+	public void setInteractiveMode(boolean interactive) {
+		this.interactive = interactive;
+		if (!interactive) {
+			translationField = null; // release memory
+		}
+	}
+
 	/**
 	 * Restricts any and all rendered gradients to render in at most n colors
 	 * (a.k.a. posterisation).
@@ -281,6 +1098,7 @@ public final class PeasyGradients {
 			gradientCache = new int[gradientCacheSize];
 			ditherStrength = 0;
 		}
+		posterised = true;
 	}
 
 	/**
@@ -407,7 +1225,30 @@ public final class PeasyGradients {
 		double odY = controlPoint2.y - controlPoint1.y; // Rise and run of line.
 		final double odSqInverse = 1 / (odX * odX + odY * odY); // Distance-squared of line.
 		double opXod = -controlPoint1.x * odX + -controlPoint1.y * odY;
-		makeThreadPool(gradient, renderStrips, LinearThread.class, odX, odY, odSqInverse, opXod);
+		final LinearKernel kernel = new LinearKernel(odX, odY, odSqInverse, opXod);
+
+		if (ditherStrength == 0 && antiAliasing == 1 && layers == null && confinedToTiles()) {
+			/*
+			 * Without dithering, an axis-aligned gradient (one whose step drifts by a
+			 * negligible fraction of a LUT index across the whole render) has identical
+			 * rows or constant rows, so render just one row or column and replicate it.
+			 */
+			final double maxRowDrift = Math.abs(odY * scaleY * odSqInverse) * renderHeight * gradientCacheSize;
+			final double maxColumnDrift = Math.abs(odX * scaleX * odSqInverse) * renderWidth * gradientCacheSize;
+			if (maxRowDrift < AXIS_ALIGNED_DRIFT) {
+				prepareRender(gradient);
+				kernel.renderReplicatedRow();
+				gradientPG.updatePixels();
+				return;
+			} else if (maxColumnDrift < AXIS_ALIGNED_DRIFT) {
+				prepareRender(gradient);
+				kernel.renderConstantRows();
+				gradientPG.updatePixels();
+				return;
+			}
+		}
+
+		render(gradient, kernel);
 
 		gradientPG.updatePixels();
 
@@ -436,7 +1277,8 @@ public final class PeasyGradients {
 		final double renderMidpointX = (centerPoint.x / gradientPG.width) * renderWidth;
 		final double renderMidpointY = (centerPoint.y / gradientPG.height) * renderHeight;
 
-		makeThreadPool(gradient, renderStrips, RadialThread.class, renderMidpointX, renderMidpointY, zoom);
+		final double radialZoom = zoom;
+		render(gradient, renderMidpointX, renderMidpointY, (x, y) -> new RadialKernel(x, y, radialZoom));
 
 		gradientPG.updatePixels();
 	}
@@ -467,7 +1309,7 @@ public final class PeasyGradients {
 		final double renderMidpointX = (centerPoint.x / gradientPG.width) * renderWidth;
 		final double renderMidpointY = (centerPoint.y / gradientPG.height) * renderHeight;
 
-		makeThreadPool(gradient, renderStrips, ConicThread.class, renderMidpointX, renderMidpointY, angle);
+		render(gradient, new ConicKernel(renderMidpointX, renderMidpointY, angle));
 
 		gradientPG.updatePixels();
 	}
@@ -520,7 +1362,7 @@ public final class PeasyGradients {
 		final double renderMidpointX = (centerPoint.x / gradientPG.width) * renderWidth;
 		final double renderMidpointY = (centerPoint.y / gradientPG.height) * renderHeight;
 
-		makeThreadPool(gradient, renderStrips, SpiralThread.class, renderMidpointX, renderMidpointY, curveDenominator, curviness, angle, curveCount);
+		render(gradient, new SpiralKernel(renderMidpointX, renderMidpointY, curveDenominator, curviness, angle, curveCount));
 
 		gradientPG.updatePixels();
 	}
@@ -552,27 +1394,100 @@ public final class PeasyGradients {
 
 		final double denominator = MIN_LENGTH_RATIO / ((Math.max(renderHeight, renderWidth)) * (0.0125 * zoom * FastMath.pow(sides, 2.4)));
 
-		int LUT_SIZE = (int) Functions.max(2000, renderWidth * 20f, renderHeight * 20f); // suitable value?
-		final int HALF_LUT_SIZE = (int) (LUT_SIZE / TWO_PI);
-		final double[] ratioLookup = new double[(LUT_SIZE) + 1]; // LUT
+		final int LUT_SIZE = (int) Functions.max(2000, renderWidth * 20f, renderHeight * 20f); // suitable value?
+		final double[] ratioLookup = polygonRatioLookup(sides, angle, LUT_SIZE);
 
 		/*
-		 * Pre-compute the ratio used to scale euclidean distance between each pixel and
-		 * the gradient midpoint. I've explained this calculation here:
+		 * The polygon is mirror-symmetric about the lines through its midpoint at its
+		 * angle plus any multiple of PI/sides (through its vertices and the midpoints
+		 * of its edges); so about the horizontal and vertical axes when those are
+		 * among them.
+		 */
+		final boolean symmetricY = isMultiple(angle, PI / sides);
+		final boolean symmetricX = isMultiple(angle - HALF_PI, PI / sides);
+		render(gradient, renderMidpointX, renderMidpointY,
+				(x, y) -> new PolygonKernel(x, y, ratioLookup, denominator, symmetricX, symmetricY));
+
+		gradientPG.updatePixels();
+
+	}
+
+	/**
+	 * Returns the lookup table of the ratio used to scale euclidean distance
+	 * between each pixel and the midpoint of a polygon gradient, taking it from
+	 * the cache if a table for the given parameters has already been built.
+	 * <p>
+	 * The table is indexed by {@link Functions#diamondAngle(double, double) diamond
+	 * angle} (scaled by <code>size/4</code>) of the vector from midpoint to pixel,
+	 * so kernels avoid calling atan2 per pixel.
+	 * 
+	 * @param sides number of polygon sides
+	 * @param angle polygon angle, modulo the segment angle
+	 * @param size  resolution of the table (it has size+1 entries)
+	 */
+	private static double[] polygonRatioLookup(int sides, double angle, int size) {
+		final PolygonLutKey key = new PolygonLutKey(sides, angle, size);
+		synchronized (POLYGON_LUT_CACHE) {
+			final double[] cached = POLYGON_LUT_CACHE.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		final double MIN_LENGTH_RATIO = FastMath.tan(HALF_PI - (Math.PI / sides));
+		final double SEGMENT_ANGLE = TWO_PI / sides;
+		final double[] ratioLookup = new double[size + 1];
+
+		/*
+		 * Pre-compute the ratio used to scale euclidean distance between each pixel and
+		 * the gradient midpoint. I've explained this calculation here:
 		 * https://stackoverflow.com/q/11812300/63264634#63264634
 		 */
 		for (int i = 0; i < ratioLookup.length; i++) {
-			double theta = (double) (i * 2) / (LUT_SIZE); // *2 for
-			theta *= Math.PI;
+			final double d = 4.0 * i / size; // diamond angle of entry
+			final int quadrant = Math.min((int) d, 3);
+			final double p = d - quadrant;
+			double theta = quadrant * HALF_PI + Math.atan2(p, 1 - p); // true angle of entry
 			theta -= angle;
 			theta = (Math.abs(theta) % SEGMENT_ANGLE);
-			ratioLookup[i] = ((MIN_LENGTH_RATIO * FastMath.cos(theta) + FastMath.sin(theta)) * denominator);
+			ratioLookup[i] = MIN_LENGTH_RATIO * FastMath.cos(theta) + FastMath.sin(theta);
 		}
 
-		makeThreadPool(gradient, renderStrips, PolygonThread.class, renderMidpointX, renderMidpointY, ratioLookup, HALF_LUT_SIZE);
+		synchronized (POLYGON_LUT_CACHE) {
+			POLYGON_LUT_CACHE.put(key, ratioLookup);
+		}
+		return ratioLookup;
+	}
 
-		gradientPG.updatePixels();
+	/**
+	 * Identifies a polygon ratio lookup table (see
+	 * {@link PeasyGradients#polygonRatioLookup(int, double, int)}).
+	 */
+	private static final class PolygonLutKey {
+
+		private final int sides;
+		private final double angle;
+		private final int size;
 
+		PolygonLutKey(int sides, double angle, int size) {
+			this.sides = sides;
+			this.angle = angle;
+			this.size = size;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PolygonLutKey)) {
+				return false;
+			}
+			final PolygonLutKey other = (PolygonLutKey) obj;
+			return sides == other.sides && size == other.size && Double.compare(angle, other.angle) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * sides + size) * 31 + Double.hashCode(angle);
+		}
 	}
 
 	/**
@@ -596,7 +1511,7 @@ public final class PeasyGradients {
 		final double sin = FastMath.sin(angle);
 		final double cos = FastMath.cos(angle);
 
-		makeThreadPool(gradient, renderStrips, CrossThread.class, renderMidpointX, renderMidpointY, denominator, sin, cos);
+		render(gradient, new CrossKernel(renderMidpointX, renderMidpointY, denominator, sin, cos));
 
 		gradientPG.updatePixels();
 	}
@@ -624,7 +1539,7 @@ public final class PeasyGradients {
 		final double sin = FastMath.sin(angle);
 		final double cos = FastMath.cos(angle);
 
-		makeThreadPool(gradient, renderStrips, DiamondThread.class, renderMidpointX, renderMidpointY, denominator, sin, cos);
+		render(gradient, renderMidpointX, renderMidpointY, (x, y) -> new DiamondKernel(x, y, denominator, sin, cos));
 
 		gradientPG.updatePixels();
 
@@ -651,13 +1566,18 @@ public final class PeasyGradients {
 	 */
 	public void noiseGradient(Gradient gradient, PVector centerPoint, double angle, double scale) {
 
-		fastNoiseLite.SetNoiseType(NoiseType.OpenSimplex2);
-		fastNoiseLite.SetFrequency((float) (1 / scale * 0.001)); // normalise scale to a more appropriate value
+		final FastNoiseLite noise = noiseGenerator();
+		noise.SetNoiseType(NoiseType.OpenSimplex2);
+		noise.SetFrequency((float) (1 / scale * 0.001)); // normalise scale to a more appropriate value
 
 		final double sin = FastMath.sin(angle + THREE_QRTR_PI); // +THREE_QRTR_PI to align centrepoint with noise position
 		final double cos = FastMath.cos(angle + THREE_QRTR_PI); // +THREE_QRTR_PI to align centrepoint with noise position
 
-		makeThreadPool(gradient, renderStrips, NoiseThread.class, centerPoint, sin, cos);
+		final NoiseKernel kernel = new NoiseKernel(noise, centerPoint, sin, cos);
+		if (kernel.identifiesField()) {
+			kernel.identifyField(centerPoint.x, centerPoint.y, sin, cos, scale, noiseSeed); // noise also depends on generator settings
+		}
+		render(gradient, kernel);
 
 		gradientPG.updatePixels();
 
@@ -697,7 +1617,7 @@ public final class PeasyGradients {
 		final double sin = FastMath.sin(angle + THREE_QRTR_PI); // +THREE_QRTR_PI to align centrepoint with noise position
 		final double cos = FastMath.cos(angle + THREE_QRTR_PI); // +THREE_QRTR_PI to align centrepoint with noise position
 
-		makeThreadPool(gradient, renderStrips, UniformNoiseThread.class, centerPoint, sin, cos, scale, z);
+		render(gradient, new UniformNoiseKernel(centerPoint, sin, cos, scale, z));
 
 		gradientPG.updatePixels();
 	}
@@ -725,13 +1645,14 @@ public final class PeasyGradients {
 	public void fractalNoiseGradient(Gradient gradient, PVector centerPoint, double angle, double scale, NoiseType noiseType, FractalType fractalType,
 			int fractalOctaves, double fractalGain, double fractalLacunarity) {
 
-		fastNoiseLite.SetFrequency((float) (1 / scale * 0.001f)); // normalise scale to a more appropriate value
-		fastNoiseLite.SetNoiseType(noiseType);
+		final FastNoiseLite noise = noiseGenerator();
+		noise.SetFrequency((float) (1 / scale * 0.001f)); // normalise scale to a more appropriate value
+		noise.SetNoiseType(noiseType);
 
-		fastNoiseLite.SetFractalType(fractalType);
-		fastNoiseLite.SetFractalOctaves(fractalOctaves);
-		fastNoiseLite.SetFractalGain((float) fractalGain);
-		fastNoiseLite.SetFractalLacunarity((float) fractalLacunarity);
+		noise.SetFractalType(fractalType);
+		noise.SetFractalOctaves(fractalOctaves);
+		noise.SetFractalGain((float) fractalGain);
+		noise.SetFractalLacunarity((float) fractalLacunarity);
 
 		/**
 		 * The range of noise values from fastnoise are generally [-1...1] (some have
@@ -749,7 +1670,13 @@ public final class PeasyGradients {
 		final double sin = FastMath.sin(angle + THREE_QRTR_PI); // +THREE_QRTR_PI to align centrepoint with noise position
 		final double cos = FastMath.cos(angle + THREE_QRTR_PI); // +THREE_QRTR_PI to align centrepoint with noise position
 
-		makeThreadPool(gradient, renderStrips, FractalNoiseThread.class, centerPoint, sin, cos, min, maxMinDenom);
+		final FractalNoiseKernel kernel = new FractalNoiseKernel(noise, centerPoint, sin, cos, min, maxMinDenom,
+				fractalType == FractalType.None ? 1 : fractalOctaves);
+		if (kernel.identifiesField()) {
+			kernel.identifyField(centerPoint.x, centerPoint.y, sin, cos, scale, noiseType, fractalType, fractalOctaves, fractalGain,
+					fractalLacunarity, noiseSeed); // noise also depends on generator settings
+		}
+		render(gradient, kernel);
 
 		gradientPG.updatePixels();
 
@@ -785,7 +1712,7 @@ public final class PeasyGradients {
 
 		final double xDiffMax = (renderWidth / 2f) * beamAngle; // * beamAngle for limit
 
-		makeThreadPool(gradient, renderStrips, SpotlightThread.class, originPoint, sin, cos, beamAngle, xDiffMax);
+		render(gradient, new SpotlightKernel(originPoint, sin, cos, beamAngle, xDiffMax));
 
 		gradientPG.updatePixels();
 
@@ -844,596 +1771,2105 @@ public final class PeasyGradients {
 		final double sin = FastMath.sin(PConstants.TWO_PI - angle);
 		final double cos = FastMath.cos(angle);
 
-		makeThreadPool(gradient, renderStrips, HourglassThread.class, renderMidpointX, renderMidpointY, sin, cos, zoom, angle, pinch, roundness, denominator);
+		render(gradient, new HourglassKernel(renderMidpointX, renderMidpointY, sin, cos, pinch, roundness, denominator));
 
 		gradientPG.updatePixels();
 
 	}
 
 	/**
-	 * Creates a pool of threads to split the rendering work for the given gradient
-	 * type (each thread works on a horizontal strip portion of the pixels array).
-	 * This method starts the threads and returns when all threads have completed.
+	 * Renders the given gradient kernel into the render region. The region is
+	 * recursively split into tiles that are rendered in parallel by the executor
+	 * (or entirely on the calling thread, in caller-runs mode); this method
+	 * returns when all tiles have been rendered.
 	 * 
-	 * @param gradient     TODO
-	 * @param partitionsY
-	 * @param gradientType class for the given gradient type thread
-	 * @param args         args to pass to gradient thread constructor
+	 * @param gradient 1D gradient to compute the color LUT from
+	 * @param kernel   kernel for the given gradient type, holding the
+	 *                 pre-computed parameters of this render
 	 */
-	private void makeThreadPool(Gradient gradient, final int partitionsY, final Class<?> gradientType, final Object... args) {
+	private void render(Gradient gradient, final RenderKernel kernel) {
+		prepareRender(gradient);
 
-		// compute LUT
-		for (int i = 0; i < gradientCache.length; i++) {
-			gradientCache[i] = gradient.getColor((double) i / (gradientCache.length - 1));
+		if (layers != null) {
+			layers.add(new Layer(kernel, gradientCache.clone(), pixelGradient, layerBlendMode, layerOpacity));
+			return;
 		}
 
-		Object[] fullArgs = new Object[3 + args.length]; // empty obj array (to use as input args for new thread instance)
-		fullArgs[0] = this; // sub-classes require parent instance as (hidden) first param
-		System.arraycopy(args, 0, fullArgs, 3, args.length); // copy the input-args into fullargs
-
-		List<Callable<Boolean>> taskList = new ArrayList<>();
-
-		try {
-			@SuppressWarnings("unchecked")
-			// only 1 constructor per thread class, so use [0]
-			Constructor<? extends RenderThread> constructor = (Constructor<? extends RenderThread>) gradientType.getDeclaredConstructors()[0];
-
-			// rows per strip (except for last strip, which may have less/more, due to floor
-			// division)
-			int rows = renderHeight / partitionsY;
-			for (int strip = 0; strip < partitionsY - 1; strip++) {
-				fullArgs[1] = rows * strip; // row vertical offset (y coord to start rendering at)
-				fullArgs[2] = rows; // row count (height of horizontal strip)
-				RenderThread thread = constructor.newInstance(fullArgs);
-				taskList.add(thread);
-			}
-
-			fullArgs[1] = rows * (partitionsY - 1);
-			fullArgs[2] = renderHeight - rows * (partitionsY - 1);
-
-			RenderThread thread = constructor.newInstance(fullArgs);
-			taskList.add(thread);
-
-			// run threads and wait for completion
-			List<Future<Boolean>> futures = THREAD_POOL.invokeAll(taskList);
-			// errors are swallowed by default, so throw if present
-			for (Future<Boolean> future : futures) {
-				try {
-					future.get();
-				} catch (ExecutionException e) {
-					throw new RuntimeException(e.getCause());
+		kernel.downscale = sourceOver || clipShape != null ? 1 : previewDownscale; // (clipped spans are rendered row by row)
+		int cost = kernel.cost();
+		if (kernel.downscale > 1) {
+			cost = Math.max(1, cost / (kernel.downscale * kernel.downscale));
+			previewKernel = kernel;
+			previewGradient = gradient;
+		}
+		if (retainStepField && kernel.fieldKey != null && pixelGradient == null && antiAliasing == 1 && clipShape == null
+				&& kernel.downscale == 1 && gradientCacheSize <= MAX_STEP_FIELD_LUT_SIZE) {
+			if (isStepFieldValid(kernel)) {
+				kernel.field = stepField;
+				cost = 1; // remapping only
+			} else {
+				if (stepField == null || stepField.length != renderWidth * renderHeight) {
+					stepField = new char[renderWidth * renderHeight];
 				}
+				invalidateStepField(); // until fully recorded
+				kernel.field = stepField;
+				kernel.recordField = true;
 			}
-		} catch (Exception e) {
-			e.printStackTrace();
 		}
-		// else, the given args probably don't match the thread class args
+
+		renderTiles(kernel, cost);
+
+		if ((kernel.field == null || kernel.recordField) && clipShape == null && kernel.downscale == 1) {
+			kernel.stepsComputed();
+		}
+		if (kernel.recordField) {
+			stepFieldKernel = kernel.getClass();
+			stepFieldKey = kernel.fieldKey;
+			stepFieldDither = ditherOffsets;
+			stepFieldLutSize = gradientCacheSize;
+		}
 	}
 
 	/**
-	 * @return an appropriate index into the gradient color LUT
+	 * Renders a gradient whose kernel is defined about a center point. In
+	 * interactive mode, the gradient is rendered into (or copied from) a
+	 * translation field; otherwise it is rendered directly.
+	 * 
+	 * @param gradient 1D gradient to compute the color LUT from
+	 * @param centerX  x coordinate of the center, relative to the render region
+	 * @param centerY  y coordinate of the center, relative to the render region
+	 * @param kernels  creates the kernel of this render about a given center
 	 */
-	private int clampAndDither(double t, int x, int y) {
-		/*
-		 * Clamp first, then dither (i.e. no point dithering values >1 if they are later
-		 * clamped back to 1.0.
-		 */
-		t = (t < 0) ? 0 : (t > 1 ? 1 : t); // clamp between 0...1
+	private void render(Gradient gradient, double centerX, double centerY, CenteredKernelFactory kernels) {
+		if (!interactive || layers != null || !confinedToTiles() || previewDownscale > 1 || (perPixelSampling && !posterised)) {
+			render(gradient, kernels.create(centerX, centerY));
+			return;
+		}
 
-		if (ditherStrength > 0) {
-			double d = interleavedGradientNoise(x, y);
-			t += d;
-			// reclamp
-			if (t < 0) {
-				t = 0;
+		prepareRender(gradient);
+
+		final int fieldWidth = 2 * renderWidth;
+		final int fieldHeight = 2 * renderHeight;
+		TranslationField field = translationField;
+		if (field != null && field.image.width == fieldWidth && field.image.height == fieldHeight) {
+			final RenderKernel kernel = kernels.create(field.centerX, field.centerY); // as the field was rendered
+			if (field.matches(kernel, gradient, ditherOffsets, antiAliasing) && field.copyWindow(centerX, centerY)) {
+				return;
 			}
 		}
 
-		// if t==1, index would be out of bounds, so take min()
-		int stepInt = Math.min((int) (t * gradientCacheSize), gradientCacheSize - 1);
+		final double fieldCenterX = centerX + fieldWindow(centerX, renderWidth);
+		final double fieldCenterY = centerY + fieldWindow(centerY, renderHeight);
+		final RenderKernel kernel = kernels.create(fieldCenterX, fieldCenterY);
+		final PImage image = field != null && field.image.width == fieldWidth && field.image.height == fieldHeight ? field.image
+				: new PImage(fieldWidth, fieldHeight);
+		translationField = null; // until fully rendered
+		renderInto(image, kernel);
+		field = new TranslationField(image, fieldCenterX, fieldCenterY, kernel, gradient, ditherOffsets, antiAliasing);
+		field.copyWindow(centerX, centerY);
+		translationField = field;
+	}
 
-		return stepInt;
+	/**
+	 * Chooses the position (along one axis) of the render region's window within a
+	 * new translation field. The gradient's center is placed in the middle of the
+	 * field, if that leaves the window within the field; otherwise (when the center
+	 * is outside the render region) the window is placed in the middle of the field.
+	 * 
+	 * @param center gradient center, relative to the render region
+	 * @param size   size of the render region
+	 * @return offset of the window within the field, in whole pixels
+	 */
+	private static int fieldWindow(double center, int size) {
+		final double window = size - Math.floor(center);
+		return window >= 0 && window <= size ? (int) window : size / 2;
 	}
 
-	private double interleavedGradientNoise(final int x, final int y) {
-		// http://www.iryoku.com/next-generation-post-processing-in-call-of-duty-advanced-warfare
-		// https://bartwronski.com/2016/10/30/dithering-part-three-real-world-2d-quantization-dithering/
-		final double v = 52.9829189 * (0.06711056 * x + 0.00583715 * y);
-		double n = (v - Math.floor(v)); // take fractional part (range of 1)
-		n = n * 2 - 1; // adjust range from [0,1] to [-1,1]
-		return n * ditherStrength; // scale output
+	/**
+	 * Renders every tile of the given image with the given kernel, by temporarily
+	 * making the full image the render target.
+	 */
+	private void renderInto(PImage image, RenderKernel kernel) {
+		final PImage target = gradientPG;
+		final int width = renderWidth, height = renderHeight;
+		final int offsetX = renderOffsetX, offsetY = renderOffsetY;
+		gradientPG = image;
+		renderWidth = image.width;
+		renderHeight = image.height;
+		renderOffsetX = 0;
+		renderOffsetY = 0;
+		try {
+			renderTiles(kernel, kernel.cost());
+		} finally {
+			gradientPG = target;
+			renderWidth = width;
+			renderHeight = height;
+			renderOffsetX = offsetX;
+			renderOffsetY = offsetY;
+		}
 	}
 
 	/**
-	 * Threads operate on a portion (horizontal strip) of the pixels grid.
-	 * 
-	 * RenderThread child classes will implement call(); here the parallel gradient
-	 * rendering work is done.
-	 * 
-	 * @author Michael Carleton
-	 *
+	 * Creates the kernel of a render about a given center (relative to the render
+	 * region), where every other parameter of the render is fixed.
 	 */
-	private abstract class RenderThread implements Callable<Boolean> {
+	private interface CenteredKernelFactory {
+		RenderKernel create(double centerX, double centerY);
+	}
 
-		final int rowOffset, rows; // so that each thread calculates and renders gradient spectrum into a unique
-									// parition of the pixel grid
-		int pixel;
+	/**
+	 * A gradient rendered over an area larger than the render region, about a
+	 * center within it, kept so that a translated render of the same gradient can
+	 * be copied from it.
+	 */
+	private final class TranslationField {
 
+		private final PImage image;
+		private final double centerX, centerY; // center of the gradient, relative to the image
+		private final Class<?> kernelType;
+		private final Object[] kernelKey;
 		/*
-		 * All gradient rendering threads, regardless of their specific gradient type,
-		 * need offsets and pixel length to determine which partition of the pixels grid
-		 * it should operate on.
+		 * The gradient (and its state) the LUT was computed from, and the size and
+		 * posterisation of the LUT; these determine the LUT's colors, so are compared
+		 * instead of the LUT itself.
 		 */
-		RenderThread(int rowOffset, int rows) {
-			this.rowOffset = rowOffset;
-			this.rows = rows;
-			pixel = (rowOffset + renderOffsetY) * gradientPG.width; // Start at the correct global row, only considering renderOffsetY here.
+		private final Gradient gradient;
+		private final long gradientVersion;
+		private final ColorSpace colorSpace;
+		private final Interpolation interpolation;
+		private final int lutSize;
+		private final boolean posterised;
+		private final int[] dither;
+		private final int antiAliasing;
+
+		TranslationField(PImage image, double centerX, double centerY, RenderKernel kernel, Gradient gradient, int[] dither,
+				int antiAliasing) {
+			this.image = image;
+			this.centerX = centerX;
+			this.centerY = centerY;
+			kernelType = kernel.getClass();
+			kernelKey = kernel.fieldKey;
+			this.gradient = gradient;
+			gradientVersion = gradient.getVersion();
+			colorSpace = gradient.colorSpace;
+			interpolation = gradient.interpolationMode;
+			lutSize = gradientCacheSize;
+			posterised = PeasyGradients.this.posterised;
+			this.dither = dither;
+			this.antiAliasing = antiAliasing;
 		}
-	}
 
-	private final class LinearThread extends RenderThread {
-
-		private final double odX, odY;
-		private final double odSqInverse;
-		private double opXod;
-
-		LinearThread(int rowOffset, int rows, double odX, double odY, double odSqInverse, double opXod) {
-			super(rowOffset, rows);
-			this.odX = odX;
-			this.odY = odY;
-			this.odSqInverse = odSqInverse;
-			this.opXod = opXod;
+		/**
+		 * @return whether this field was rendered by a kernel with the same steps as
+		 *         the given kernel, in the LUT colors of the given gradient (in its
+		 *         current state) under the current LUT settings, and with the given
+		 *         dither offsets and anti-aliasing level
+		 */
+		boolean matches(RenderKernel kernel, Gradient gradient, int[] dither, int antiAliasing) {
+			return kernelType == kernel.getClass() && kernelKey != null && Arrays.equals(kernelKey, kernel.fieldKey) && this.dither == dither
+					&& this.antiAliasing == antiAliasing && this.gradient == gradient && gradientVersion == gradient.getVersion()
+					&& colorSpace == gradient.colorSpace && interpolation == gradient.interpolationMode && lutSize == gradientCacheSize
+					&& posterised == PeasyGradients.this.posterised;
 		}
 
-		@Override
-		public Boolean call() {
-			/*
-			 * Usually we'd call Functions.linearProject() to calculate step at each pixel,
-			 * but the function is inlined here to optimise speed.
-			 */
-			opXod += rowOffset * odY * scaleY;
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				opXod += odY * scaleY;
-				// Add renderOffsetX only at the start of each row.
-				pixel += renderOffsetX;
-				for (int x = 0; x < renderWidth; x++) {
-					double step = (opXod + x * odX * scaleX) * odSqInverse;
-
-					int stepInt = clampAndDither(step, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
-				}
-				// After rendering a row, jump to the beginning of the next row.
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
+		/**
+		 * Copies the window of this field that places the gradient's center at the
+		 * given position (relative to the render region), to the nearest pixel, into
+		 * the render region.
+		 * 
+		 * @return false (having copied nothing) if the window lies partly outside
+		 *         this field
+		 */
+		boolean copyWindow(double regionCenterX, double regionCenterY) {
+			final double windowX = Math.rint(centerX - regionCenterX);
+			final double windowY = Math.rint(centerY - regionCenterY);
+			if (windowX < 0 || windowY < 0 || windowX > image.width - renderWidth || windowY > image.height - renderHeight) {
+				return false;
+			}
+			final int[] pixels = gradientPG.pixels;
+			int source = (int) windowY * image.width + (int) windowX;
+			int pixel = renderOffsetY * gradientPG.width + renderOffsetX;
+			for (int y = 0; y < renderHeight; y++, source += image.width, pixel += gradientPG.width) {
+				System.arraycopy(image.pixels, source, pixels, pixel, renderWidth);
 			}
 			return true;
 		}
-
 	}
 
-	private final class RadialThread extends RenderThread {
-
-		private final double renderMidpointX, renderMidpointY;
-		private final double zoom;
-
-		RadialThread(int rowOffset, int rows, double renderMidpointX, double renderMidpointY, double zoom) {
-			super(rowOffset, rows);
-			this.renderMidpointX = renderMidpointX;
-			this.renderMidpointY = renderMidpointY;
-			this.zoom = zoom;
-		}
-
-		@Override
-		public Boolean call() {
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				double rise = renderMidpointY - y;
-				rise *= rise;
-				pixel += renderOffsetX;
-				for (int x = 0; x < renderWidth; x++) {
-
-					double run = renderMidpointX - x;
-					run *= run;
+	/**
+	 * @return whether the retained step field was recorded by a kernel with the
+	 *         same step field as the given kernel, under the current dither
+	 *         offsets and LUT size
+	 */
+	private boolean isStepFieldValid(RenderKernel kernel) {
+		return stepFieldKey != null && stepFieldKernel == kernel.getClass() && Arrays.equals(stepFieldKey, kernel.fieldKey)
+				&& stepFieldDither == ditherOffsets && stepFieldLutSize == gradientCacheSize;
+	}
 
-					double distSq = run + rise;
-					double dist = zoom * distSq;
+	/**
+	 * @return whether every pixel of the render region is rendered by writing
+	 *         exactly that pixel, so that rendering paths which write pixels beyond
+	 *         the tile being rendered (such as mirroring) must be bypassed; the case
+	 *         when compositing or clipping
+	 */
+	private boolean confinedToTiles() {
+		return !sourceOver && clipShape == null;
+	}
 
-					int stepInt = clampAndDither(dist, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
+	/**
+	 * @return the spans of the clip shape within each row of the render region,
+	 *         relative to the region
+	 */
+	private int[][] clipSpans() {
+		if (clipSpans == null) {
+			final int[][] spans = new int[renderHeight][];
+			for (int y = 0; y < renderHeight; y++) {
+				final int[] row = clipShape.spans(y + renderOffsetY);
+				final int[] clipped = new int[row.length];
+				int length = 0;
+				for (int i = 0; i < row.length; i += 2) {
+					final int start = Math.max(row[i] - renderOffsetX, 0);
+					final int end = Math.min(row[i + 1] - renderOffsetX, renderWidth);
+					if (end > start) {
+						clipped[length++] = start;
+						clipped[length++] = end;
+					}
 				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
+				spans[y] = Arrays.copyOf(clipped, length);
 			}
-			return true;
+			clipSpans = spans;
 		}
-
+		return clipSpans;
 	}
 
-	private final class ConicThread extends RenderThread {
-
-		private final double renderMidpointX, renderMidpointY;
-		private final double angle;
-
-		ConicThread(int rowOffset, int rows, double renderMidpointX, double renderMidpointY, double angle) {
-			super(rowOffset, rows);
-			this.renderMidpointX = renderMidpointX;
-			this.renderMidpointY = renderMidpointY;
-			this.angle = angle;
+	/**
+	 * Renders every tile of the render region with the given kernel, on the calling
+	 * thread or split across the executor depending on the render's cost.
+	 */
+	private void renderTiles(TileRenderer kernel, final int cost) {
+		if (clipShape != null) {
+			final boolean coverage = clipShape.hasPartialCoverage(); // (then composited by the clipped renderer itself)
+			kernel = new ClippedRenderer(sourceOver && !coverage ? new SourceOverRenderer(kernel, premultiplied) : kernel, clipSpans(),
+					coverage ? clipShape : null);
+		} else if (sourceOver) {
+			kernel = new SourceOverRenderer(kernel, premultiplied);
+		}
+		if (callerRuns || (long) renderWidth * renderHeight * cost < parallelThreshold) {
+			kernel.renderTile(0, 0, renderWidth, renderHeight); // single-threaded
+			return;
 		}
 
-		@Override
-		public Boolean call() {
-
-			double t;
-			double rise, run;
-
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				rise = renderMidpointY - y;
-				pixel += renderOffsetX;
-				for (int x = 0; x < renderWidth; x++) { // FULL WIDTH
-					run = renderMidpointX - x;
-					t = Functions.fastAtan2b(rise, run) + Math.PI - angle; // + PI to align bump with angle
-					t *= INV_TWO_PI; // normalise
-					t -= Math.floor(t); // modulo
-
-					int stepInt = clampAndDither(t, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
+		final ExecutorService pool = executor();
+		final int maxTileArea = tileArea > 0 ? tileArea : adaptiveTileArea(parallelism(pool));
+		final TileTask task = new TileTask(kernel, 0, 0, renderWidth, renderHeight, maxTileArea);
 
+		if (pool instanceof ForkJoinPool) {
+			((ForkJoinPool) pool).invoke(task);
+		} else {
+			final List<Callable<Void>> tiles = new ArrayList<>();
+			task.collectTiles(tiles);
+			List<Future<Void>> futures = null;
+			try {
+				futures = pool.invokeAll(tiles);
+				// errors are swallowed by default, so throw if present
+				for (Future<Void> future : futures) {
+					future.get();
 				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if (futures != null) { // (invokeAll cancels its own tiles if interrupted)
+					for (Future<Void> future : futures) {
+						future.cancel(true);
+					}
+				}
+				final CancellationException cancelled = new CancellationException("Gradient render interrupted");
+				cancelled.initCause(e);
+				throw cancelled;
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
 			}
-
-			return true;
 		}
-
 	}
 
 	/**
-	 * Thread for variable-curviness spiral gradients.
-	 * 
-	 * @author Michael Carleton
-	 *
+	 * Samples the gradient into the LUT ({@link #gradientCache}) (or, when
+	 * sampling per pixel, compiles it for kernels to sample) and brings the dither
+	 * offsets up to date, ready for kernels to render.
 	 */
-	private final class SpiralThread extends RenderThread {
-
-		private final double renderMidpointX, renderMidpointY;
-		private final double angle;
-		private final double curveCount;
-		private final double curviness;
-		private final double curveDenominator;
-
-		SpiralThread(int rowOffset, int rows, double renderMidpointX, double renderMidpointY, double curveDenominator, double curviness, double angle,
-				double curveCount) {
-			super(rowOffset, rows);
-			this.renderMidpointX = renderMidpointX;
-			this.renderMidpointY = renderMidpointY;
-			this.curveCount = curveCount;
-			this.curveDenominator = curveDenominator;
-			this.angle = angle;
-			this.curviness = curviness;
+	private void prepareRender(Gradient gradient) {
+		previewKernel = null; // superseded
+		if (perPixelSampling && !posterised) {
+			pixelGradient = gradient.compile();
+		} else {
+			pixelGradient = null;
+			computeLut(gradient);
 		}
+		updateDitherOffsets();
+	}
 
-		@Override
-		public Boolean call() throws Exception {
-
-			double t;
-			double spiralOffset = 0;
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				double rise = renderMidpointY - y;
-				final double riseSquared = rise * rise;
-				for (int x = 0; x < renderWidth; x++) { // FULL WIDTH
-
-					double run = renderMidpointX - x;
-					t = Functions.fastAtan2b(rise, run) - angle; // -PI...PI
-					spiralOffset = curviness == 0.5f ? Math.sqrt((riseSquared + run * run) * curveDenominator)
-							: FastPow.fastPow((riseSquared + run * run) * curveDenominator, curviness);
-					spiralOffset *= curveCount;
-					t += spiralOffset;
-
-					t *= INV_TWO_PI; // normalise
-					t -= Math.floor(t); // modulo
-
-					int stepInt = clampAndDither(t, x, y);
-
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
-				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
+	/**
+	 * Samples the gradient into the LUT ({@link #gradientCache}), unless the LUT
+	 * already holds the gradient in its current state. When only the gradient's
+	 * offset has changed (as when animating it), the LUT is instead rotated from
+	 * the base LUT, without sampling the gradient, unless the LUT is posterised.
+	 */
+	private void computeLut(Gradient gradient) {
+		if (gradient != lutGradient || gradient.getVersionIgnoringOffset() != lutGradientVersion || gradient.colorSpace != lutColorSpace
+				|| gradient.interpolationMode != lutInterpolation || gradientCache != lutArray) {
+			if (baseLut == null || baseLut.length != gradientCacheSize) {
+				baseLut = new int[gradientCacheSize];
 			}
+			gradient.fillColors(baseLut, 0);
+
+			lutGradient = gradient;
+			lutGradientVersion = gradient.getVersionIgnoringOffset();
+			lutColorSpace = gradient.colorSpace;
+			lutInterpolation = gradient.interpolationMode;
+			lutArray = gradientCache;
+			lutOffset = Double.NaN; // rotate (below) regardless of offset
+		}
 
-			return true;
+		final double offset = gradient.getOffset();
+		if (offset != lutOffset) {
+			rotateLut(gradient, offset);
+			lutOffset = offset;
 		}
 	}
 
-	private final class PolygonThread extends RenderThread {
-
-		private final double renderMidpointX, renderMidpointY;
-		private final double[] ratioLookup;
-		private final int HALF_LUT_SIZE;
-
-		PolygonThread(int rowOffset, int rows, double renderMidpointX, double renderMidpointY, double[] ratioLookup, int HALF_LUT_SIZE) {
-			super(rowOffset, rows);
-			this.renderMidpointX = renderMidpointX;
-			this.renderMidpointY = renderMidpointY;
-			this.ratioLookup = ratioLookup;
-			this.HALF_LUT_SIZE = HALF_LUT_SIZE;
+	/**
+	 * Writes the base LUT into the LUT, rotated by the given gradient offset.
+	 * <p>
+	 * The first and last LUT entries hold the gradient's colors at positions 0 and
+	 * 1, which an offset wraps onto each other, so the LUT's colors repeat with a
+	 * period of one less than its size.
+	 * <p>
+	 * The offset is rounded to a whole number of LUT entries, which displaces
+	 * colors by at most half an entry: no more than the LUT's own quantization.
+	 * A posterised LUT is instead sampled at the offset, since it is small enough
+	 * that rounding would visibly hold the gradient still and then jump a whole
+	 * band.
+	 */
+	private void rotateLut(Gradient gradient, double offset) {
+		final int n = gradientCacheSize;
+		final int period = n - 1;
+		if (period < 1) {
+			System.arraycopy(baseLut, 0, gradientCache, 0, n);
+			return;
 		}
+		if (posterised) {
+			gradient.fillColors(gradientCache, offset);
+			return;
+		}
+		final int shift = (int) Math.floorMod((long) Math.rint(offset * period), (long) period);
+		if (shift == 0) {
+			System.arraycopy(baseLut, 0, gradientCache, 0, n);
+		} else {
+			System.arraycopy(baseLut, shift, gradientCache, 0, n - shift);
+			System.arraycopy(baseLut, 1, gradientCache, n - shift, shift);
+		}
+	}
 
-		@Override
-		public Boolean call() {
-
-			double yDist; // y distance between midpoint and a given pixel
-			double xDist; // x distance between midpoint and a given pixel
-
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				yDist = (renderMidpointY - y);
-				xDist = renderMidpointX;
-				for (int x = 0; x < renderWidth; x++) {
-					final double pointDistance = Math.sqrt(yDist * yDist + xDist * xDist); // euclidean dist between (x,y) and midpoint
-					xDist--;
-
-					double theta = FastMath.atan2((renderMidpointY - y), (renderMidpointX - x)); // range = -PI...PI
-					// Use LUT: +PI to make theta in range 0...2PI and array index positive
-					double polygonRatio = ratioLookup[(int) ((theta + Math.PI) * HALF_LUT_SIZE)]; // use LUT
-
-					double dist = polygonRatio * pointDistance;
+	/**
+	 * (Re)builds the dither offsets from the dither texture if the dither type,
+	 * strength or LUT size has changed since they were last built.
+	 */
+	private void updateDitherOffsets() {
+		if (ditherStrength <= 0) {
+			ditherOffsets = null;
+			return;
+		}
+		if (ditherOffsets != null && ditherOffsetsType == ditherType && ditherOffsetsStrength == ditherStrength
+				&& ditherOffsetsLutSize == gradientCacheSize) {
+			return;
+		}
 
-					final int stepInt = clampAndDither(dist, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
-				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
+		final int size = ditherType.size();
+		final int[] offsets = new int[size * size];
+		final double scale = ditherStrength * gradientCacheSize; // from [-1, 1] to LUT indices
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				offsets[y * size + x] = (int) Math.round(ditherType.sample(x, y) * scale);
 			}
-
-			return true;
 		}
 
+		ditherOffsets = offsets;
+		ditherMask = size - 1;
+		ditherShift = Integer.numberOfTrailingZeros(size);
+		ditherOffsetsType = ditherType;
+		ditherOffsetsStrength = ditherStrength;
+		ditherOffsetsLutSize = gradientCacheSize;
 	}
 
-	private final class CrossThread extends RenderThread {
-
-		private final double renderMidpointX, renderMidpointY;
-		private final double denominator;
-		private final double sin, cos;
-
-		CrossThread(int rowOffset, int rows, double renderMidpointX, double renderMidpointY, double denominator, double sin, double cos) {
-			super(rowOffset, rows);
-			this.renderMidpointX = renderMidpointX;
-			this.renderMidpointY = renderMidpointY;
-			this.denominator = denominator;
-			this.sin = sin;
-			this.cos = cos;
+	/**
+	 * @return the executor this renderer should split rendering work across
+	 */
+	private ExecutorService executor() {
+		if (executor != null) {
+			return executor;
 		}
+		final ExecutorService global = defaultExecutor;
+		return global != null ? global : threadPool();
+	}
 
-		@Override
-		public Boolean call() {
+	/**
+	 * @return the library's own work-stealing pool, creating it if necessary
+	 */
+	private static synchronized ForkJoinPool threadPool() {
+		if (threadPool == null) {
+			threadPool = new ForkJoinPool(cpuThreads, pool -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("PeasyGradients-" + thread.getPoolIndex());
+				thread.setDaemon(true); // don't prevent the JVM from exiting
+				return thread;
+			}, null, false);
+		}
+		return threadPool;
+	}
 
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				final double yTranslate = (y - renderMidpointY);
-				for (int x = 0; x < renderWidth; x++) {
-					final double newXpos = (x - renderMidpointX) * cos - yTranslate * sin + renderMidpointX; // rotate x about midpoint
-					final double newYpos = yTranslate * cos + (x - renderMidpointX) * sin + renderMidpointY; // rotate y about midpoint
+	/**
+	 * @return the library's threads that run asynchronous renders, creating them if
+	 *         necessary
+	 */
+	private static synchronized ExecutorService asyncExecutor() {
+		if (asyncExecutor == null) {
+			asyncExecutor = Executors.newCachedThreadPool(daemonThreads("PeasyGradients-async"));
+			deadlineScheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("PeasyGradients-deadlines"));
+		}
+		return asyncExecutor;
+	}
 
-					double dist = Math.min(Math.abs(newYpos - renderMidpointY), Math.abs(newXpos - renderMidpointX)) / denominator; // min
+	/**
+	 * @return the library's thread that enforces the deadlines of asynchronous
+	 *         renders, creating it if necessary
+	 */
+	private static synchronized ScheduledExecutorService deadlineScheduler() {
+		asyncExecutor();
+		return deadlineScheduler;
+	}
 
-					final int stepInt = clampAndDither(dist, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
-				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
-			}
+	private static ThreadFactory daemonThreads(String name) {
+		return runnable -> {
+			final Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true); // don't prevent the JVM from exiting
+			return thread;
+		};
+	}
 
-			return true;
+	/**
+	 * @return the (maximum) number of threads the given executor runs tasks with
+	 */
+	private static int parallelism(ExecutorService executor) {
+		if (executor instanceof ForkJoinPool) {
+			return ((ForkJoinPool) executor).getParallelism();
+		}
+		if (executor instanceof ThreadPoolExecutor) {
+			return Math.max(1, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
 		}
+		return cpuThreads;
+	}
 
+	/**
+	 * Chooses a tile size such that the render region is split into enough tiles
+	 * for work-stealing to balance uneven per-row costs across every thread,
+	 * while keeping each tile within [{@link #MIN_TILE_AREA},
+	 * {@link #MAX_TILE_AREA}].
+	 */
+	private int adaptiveTileArea(int parallelism) {
+		final int area = renderWidth * renderHeight;
+		final int tiles = parallelism * TILES_PER_THREAD;
+		return Math.max(MIN_TILE_AREA, Math.min(MAX_TILE_AREA, area / tiles));
 	}
 
-	private final class DiamondThread extends RenderThread {
+	/**
+	 * Renders a rectangular portion of the render region, splitting it in half
+	 * (along its longer axis) and forking each half until the portion is no larger
+	 * than the tile size.
+	 */
+	private static final class TileTask extends RecursiveAction {
 
-		private final double renderMidpointX, renderMidpointY;
-		private final double denominator;
-		private final double sin, cos;
+		private static final long serialVersionUID = 1L;
 
-		DiamondThread(int rowOffset, int rows, double renderMidpointX, double renderMidpointY, double denominator, double sin, double cos) {
-			super(rowOffset, rows);
-			this.renderMidpointX = renderMidpointX;
-			this.renderMidpointY = renderMidpointY;
-			this.denominator = denominator;
-			this.sin = sin;
-			this.cos = cos;
+		private final TileRenderer kernel;
+		private final int x0, y0, x1, y1; // bounds relative to the render region; x1 and y1 are exclusive
+		private final int maxTileArea;
+
+		TileTask(TileRenderer kernel, int x0, int y0, int x1, int y1, int maxTileArea) {
+			this.kernel = kernel;
+			this.x0 = x0;
+			this.y0 = y0;
+			this.x1 = x1;
+			this.y1 = y1;
+			this.maxTileArea = maxTileArea;
 		}
 
 		@Override
-		public Boolean call() {
-
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				final double yTranslate = (y - renderMidpointY);
-				for (int x = 0; x < renderWidth; x++) {
-					final double newXpos = (x - renderMidpointX) * cos - yTranslate * sin + renderMidpointX; // rotate x about midpoint
-					final double newYpos = yTranslate * cos + (x - renderMidpointX) * sin + renderMidpointY; // rotate y about midpoint
-
-					double dist = Math.max(Math.abs(newYpos - renderMidpointY), Math.abs(newXpos - renderMidpointX)) / denominator; // max
-
-					final int stepInt = clampAndDither(dist, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
-				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
+		protected void compute() {
+			final TileTask[] halves = split();
+			if (halves == null) {
+				kernel.renderTile(x0, y0, x1, y1);
+			} else {
+				invokeAll(halves[0], halves[1]);
 			}
+		}
 
-			return true;
+		/**
+		 * Recursively splits this task into tiles, adding a callable (that renders
+		 * the tile) for each one to the given list. Used when rendering with an
+		 * executor that isn't a ForkJoinPool.
+		 */
+		void collectTiles(List<Callable<Void>> tiles) {
+			final TileTask[] halves = split();
+			if (halves == null) {
+				tiles.add(() -> {
+					kernel.renderTile(x0, y0, x1, y1);
+					return null;
+				});
+			} else {
+				halves[0].collectTiles(tiles);
+				halves[1].collectTiles(tiles);
+			}
 		}
 
+		/**
+		 * @return the two halves of this task, or null if it is small enough to be
+		 *         rendered as a single tile
+		 */
+		private TileTask[] split() {
+			final int w = x1 - x0;
+			final int h = y1 - y0;
+			if (w * h <= maxTileArea) {
+				return null;
+			} else if (w >= 2 * h && w >= 2 * TILE_ALIGN) {
+				/*
+				 * Prefer splitting rows (rather than columns) so tiles stay wide: long row
+				 * segments are friendlier to prefetching. Split columns only when the tile is
+				 * much wider than tall, at a cache-line-aligned column.
+				 */
+				final int mid = x0 + Math.max(TILE_ALIGN, (w / 2) / TILE_ALIGN * TILE_ALIGN);
+				return new TileTask[] { new TileTask(kernel, x0, y0, mid, y1, maxTileArea), new TileTask(kernel, mid, y0, x1, y1, maxTileArea) };
+			} else if (h > 1) {
+				final int mid = y0 + h / 2;
+				return new TileTask[] { new TileTask(kernel, x0, y0, x1, mid, maxTileArea), new TileTask(kernel, x0, mid, x1, y1, maxTileArea) };
+			}
+			return null;
+		}
 	}
 
-	private class NoiseThread extends RenderThread {
-
-		final PVector centerPoint;
-		final double sin, cos;
-
-		NoiseThread(int rowOffset, int rows, PVector centerPoint, double sin, double cos) {
-			super(rowOffset, rows);
-			this.centerPoint = centerPoint;
-			this.sin = sin;
-			this.cos = cos;
+	/**
+	 * Returns this thread's scratch array for row steps, growing it if it is
+	 * shorter than the given length.
+	 */
+	private static double[] stepBuffer(int length) {
+		double[] steps = STEP_BUFFER.get();
+		if (steps.length < length) {
+			steps = new double[length];
+			STEP_BUFFER.set(steps);
 		}
+		return steps;
+	}
 
-		@Override
-		public Boolean call() {
-
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				final double yTranslate = (y - centerPoint.y);
-				for (int x = 0; x < renderWidth; x++) {
-					double newXpos = (x - centerPoint.x) * cos - yTranslate * sin + centerPoint.x; // rotate x about midpoint
-					double newYpos = yTranslate * cos + (x - centerPoint.x) * sin + centerPoint.y; // rotate y about midpoint
-
-					double step = fastNoiseLite.getSimplexNoiseFast((float) newXpos, (float) newYpos); // call custom method
+	/**
+	 * Returns this thread's scratch rows of steps: at least the given number of
+	 * arrays, each of at least the given length (growing them if necessary).
+	 * Distinct from {@link #stepBuffer(int)}.
+	 */
+	private static double[][] stepRows(int count, int length) {
+		double[][] rows = STEP_ROWS.get();
+		if (rows.length < count) {
+			rows = Arrays.copyOf(rows, count);
+			STEP_ROWS.set(rows);
+		}
+		for (int i = 0; i < count; i++) {
+			if (rows[i] == null || rows[i].length < length) {
+				rows[i] = new double[length];
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Returns this thread's scratch rows of ints: at least the given number of
+	 * arrays, each of at least the given length (growing them if necessary).
+	 */
+	private static int[][] intRows(int count, int length) {
+		int[][] rows = INT_ROWS.get();
+		if (rows.length < count) {
+			rows = Arrays.copyOf(rows, count);
+			INT_ROWS.set(rows);
+		}
+		for (int i = 0; i < count; i++) {
+			if (rows[i] == null || rows[i].length < length) {
+				rows[i] = new int[length];
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * @return the color of the pixel at (x, y) of the render region, given its
+	 *         (unclamped) step
+	 */
+	private int colorAt(double t, int x, int y) {
+		final CompiledGradient sampled = pixelGradient;
+		if (sampled == null) {
+			return gradientCache[clampAndDither(t, x, y)];
+		}
+		t = (t < 0) ? 0 : (t > 1 ? 1 : t); // clamp between 0...1
+		if (ditherOffsets != null) {
+			t += ditherOffsets[((y & ditherMask) << ditherShift) | (x & ditherMask)] / (double) gradientCacheSize;
+			t = (t < 0) ? 0 : (t > 1 ? 1 : t); // reclamp
+		}
+		return sampled.getColor(t);
+	}
+
+	/**
+	 * @return an appropriate index into the gradient color LUT
+	 */
+	private int clampAndDither(double t, int x, int y) {
+		/*
+		 * Clamp first, then dither (i.e. no point dithering values >1 if they are later
+		 * clamped back to 1.0.
+		 */
+		t = (t < 0) ? 0 : (t > 1 ? 1 : t); // clamp between 0...1
+		int stepInt = (int) (t * gradientCacheSize);
+
+		if (ditherOffsets != null) {
+			stepInt += ditherOffsets[((y & ditherMask) << ditherShift) | (x & ditherMask)];
+			// reclamp
+			if (stepInt < 0) {
+				stepInt = 0;
+			}
+		}
+
+		// if t==1, index would be out of bounds, so take min()
+		return Math.min(stepInt, gradientCacheSize - 1);
+	}
+
+	/**
+	 * A recorded gradient layer: its kernel, the colors (and dither offsets) it
+	 * was recorded with, and how it is blended onto the layers beneath it.
+	 */
+	private final class Layer {
+
+		private final RenderKernel kernel;
+		private final int[] lut;
+		private final CompiledGradient sampled; // non-null when sampling per pixel
+		private final int[] dither;
+		private final int ditherMask, ditherShift;
+		private final BlendMode blendMode;
+		private final int opacity;
+
+		Layer(RenderKernel kernel, int[] lut, CompiledGradient sampled, BlendMode blendMode, int opacity) {
+			this.kernel = kernel;
+			this.lut = lut;
+			this.sampled = sampled;
+			dither = ditherOffsets;
+			ditherMask = PeasyGradients.this.ditherMask;
+			ditherShift = PeasyGradients.this.ditherShift;
+			this.blendMode = blendMode;
+			this.opacity = opacity;
+		}
+
+		/**
+		 * @return the color of this layer at pixel (x, y) of the render region, given
+		 *         its (unclamped) step
+		 * @see PeasyGradients#colorAt(double, int, int)
+		 */
+		int colorAt(double t, int x, int y) {
+			t = (t < 0) ? 0 : (t > 1 ? 1 : t); // clamp between 0...1
+			if (sampled != null) {
+				if (dither != null) {
+					t += dither[((y & ditherMask) << ditherShift) | (x & ditherMask)] / (double) lut.length;
+					t = (t < 0) ? 0 : (t > 1 ? 1 : t); // reclamp
+				}
+				return sampled.getColor(t);
+			}
+			int stepInt = (int) (t * lut.length);
+			if (dither != null) {
+				stepInt += dither[((y & ditherMask) << ditherShift) | (x & ditherMask)];
+			}
+			return lut[stepInt < 0 ? 0 : (stepInt < lut.length ? stepInt : lut.length - 1)];
+		}
+	}
+
+	/**
+	 * Renders a stack of layers in one pass: for each row of a tile, the steps of
+	 * every layer are computed and blended into a row of colors, bottom layer
+	 * first, which is then written to the pixels.
+	 */
+	private final class LayerStack implements TileRenderer {
+
+		private final Layer[] layers;
+
+		LayerStack(Layer[] layers) {
+			this.layers = layers;
+		}
+
+		@Override
+		public void renderTile(int x0, int y0, int x1, int y1) {
+			final int[] pixels = gradientPG.pixels;
+			final int n = x1 - x0;
+			final double[] steps = stepBuffer(n);
+
+			int pixel = (y0 + renderOffsetY) * gradientPG.width + renderOffsetX; // start of first row within region
+			for (int y = y0; y < y1; y++) {
+				if (abandoned) {
+					return; // (an asynchronous render that has been cancelled or superseded)
+				}
+				// the first layer is written into the row, and later layers composited onto it in place
+				for (int l = 0; l < layers.length; l++) {
+					final Layer layer = layers[l];
+					layer.kernel.computeSteps(y, x0, x1, steps);
+					if (l == 0) {
+						for (int x = x0, i = 0; x < x1; x++, i++) {
+							pixels[pixel + x] = layer.colorAt(steps[i], x, y);
+						}
+					} else {
+						for (int x = x0, i = 0; x < x1; x++, i++) {
+							pixels[pixel + x] = layer.blendMode.composite(pixels[pixel + x], layer.colorAt(steps[i], x, y), layer.opacity);
+						}
+					}
+				}
+				pixel += gradientPG.width;
+			}
+		}
+	}
+
+	/**
+	 * Composites the tiles of another renderer over the existing pixels of the
+	 * render region. Each tile is rendered in bands of rows: the band's pixels are
+	 * saved, the band is rendered (replacing them), and then the rendered colors
+	 * are composited over the saved pixels.
+	 */
+	private final class SourceOverRenderer implements TileRenderer {
+
+		private final TileRenderer renderer;
+		private final boolean premultiplied;
+
+		SourceOverRenderer(TileRenderer renderer, boolean premultiplied) {
+			this.renderer = renderer;
+			this.premultiplied = premultiplied;
+		}
+
+		@Override
+		public void renderTile(int x0, int y0, int x1, int y1) {
+			final int[] pixels = gradientPG.pixels;
+			final int n = x1 - x0;
+			final int[] backdrop = backdropBuffer(n * COMPOSITE_BAND_HEIGHT);
+
+			for (int band = y0; band < y1; band += COMPOSITE_BAND_HEIGHT) {
+				final int bandEnd = Math.min(band + COMPOSITE_BAND_HEIGHT, y1);
+				final int first = (band + renderOffsetY) * gradientPG.width + renderOffsetX + x0;
+				for (int y = band, pixel = first, i = 0; y < bandEnd; y++, pixel += gradientPG.width, i += n) {
+					System.arraycopy(pixels, pixel, backdrop, i, n);
+				}
+				renderer.renderTile(x0, band, x1, bandEnd);
+				for (int y = band, pixel = first, i = 0; y < bandEnd; y++, pixel += gradientPG.width) {
+					for (int x = 0; x < n; x++, i++) {
+						pixels[pixel + x] = compositeOver(backdrop[i], pixels[pixel + x], premultiplied);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renders only the pixels of tiles within the spans of a clip shape, by
+	 * rendering each span of each row as a tile of its own. Optionally applies the
+	 * clip shape's coverage to the alpha of rendered pixels (then compositing them
+	 * over the target's pixels, in source-over mode).
+	 */
+	private final class ClippedRenderer implements TileRenderer {
+
+		private final TileRenderer renderer;
+		private final int[][] spans;
+		private final ClipShape coverage; // null unless applying coverage
+
+		ClippedRenderer(TileRenderer renderer, int[][] spans, ClipShape coverage) {
+			this.renderer = renderer;
+			this.spans = spans;
+			this.coverage = coverage;
+		}
+
+		@Override
+		public void renderTile(int x0, int y0, int x1, int y1) {
+			for (int y = y0; y < y1; y++) {
+				final int[] row = spans[y];
+				for (int i = 0; i < row.length; i += 2) {
+					final int start = Math.max(row[i], x0);
+					final int end = Math.min(row[i + 1], x1);
+					if (end <= start) {
+						continue;
+					}
+					if (coverage == null) {
+						renderer.renderTile(start, y, end, y + 1);
+					} else {
+						renderCoveredSpan(start, y, end);
+					}
+				}
+			}
+		}
+
+		private void renderCoveredSpan(int x0, int y, int x1) {
+			final int[] pixels = gradientPG.pixels;
+			final int pixel = (y + renderOffsetY) * gradientPG.width + renderOffsetX;
+			final int[] backdrop = sourceOver ? backdropBuffer(x1 - x0) : null;
+			if (backdrop != null) {
+				System.arraycopy(pixels, pixel + x0, backdrop, 0, x1 - x0);
+			}
+			renderer.renderTile(x0, y, x1, y + 1);
+			for (int x = x0, i = 0; x < x1; x++, i++) {
+				int color = pixels[pixel + x];
+				final int c = coverage.coverage(x + renderOffsetX, y + renderOffsetY);
+				if (c < 255) {
+					color = (((color >>> 24) * c + 127) / 255) << 24 | (color & 0xFFFFFF);
+				}
+				pixels[pixel + x] = backdrop != null ? compositeOver(backdrop[i], color, premultiplied) : color;
+			}
+		}
+	}
+
+	/**
+	 * @return a per-thread scratch array of at least the given length
+	 */
+	private static int[] backdropBuffer(int length) {
+		int[] buffer = BACKDROP_BUFFER.get();
+		if (buffer.length < length) {
+			buffer = new int[length];
+			BACKDROP_BUFFER.set(buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Composites a source color over a backdrop color (source-over).
+	 * 
+	 * @param premultiplied whether the backdrop has premultiplied alpha
+	 */
+	private static int compositeOver(int backdrop, int source, boolean premultiplied) {
+		return premultiplied ? ColorUtils.sourceOverPremultiplied(backdrop, source) : BlendMode.NORMAL.composite(backdrop, source, 255);
+	}
+
+	/**
+	 * Renders rectangular tiles of the render region; tiles may be rendered
+	 * concurrently.
+	 */
+	private interface TileRenderer {
+
+		/**
+		 * @param x0 first column (inclusive), relative to the render region
+		 * @param y0 first row (inclusive), relative to the render region
+		 * @param x1 last column (exclusive), relative to the render region
+		 * @param y1 last row (exclusive), relative to the render region
+		 */
+		void renderTile(int x0, int y0, int x1, int y1);
+	}
+
+	/**
+	 * A render kernel computes the gradient step (the position along the 1D
+	 * gradient, before clamping and dithering) of pixels for one type of 2D
+	 * gradient.
+	 * <p>
+	 * A kernel is constructed once per render call, holding the pre-computed
+	 * parameters of the call, and is shared by every task working on the call.
+	 * Implementations must therefore not keep any mutable per-pixel or per-row
+	 * state in fields.
+	 * 
+	 * @author Michael Carleton
+	 *
+	 */
+	private abstract class RenderKernel implements TileRenderer {
+
+		/**
+		 * Twice the coordinate of the vertical (mirrorX2) and horizontal (mirrorY2)
+		 * axes about which this kernel's step field is mirror-symmetric, in render
+		 * region coordinates; {@link #NO_MIRROR} if the field isn't symmetric about
+		 * that axis. Pixel x mirrors to <code>mirrorX2 - x</code>.
+		 */
+		private int mirrorX2 = NO_MIRROR, mirrorY2 = NO_MIRROR;
+
+		/**
+		 * The parameters that determine this kernel's step field (for a given render
+		 * region), used to recognise a retained step field as this kernel's; null if
+		 * the kernel hasn't identified its field (see {@link #identifiesField()}), in
+		 * which case it is never retained.
+		 */
+		private Object[] fieldKey;
+
+		/**
+		 * When non-null, tiles render via this retained step field (of LUT indices, one
+		 * per pixel of the render region) rather than directly: either recording the
+		 * field as they render (when recordField is true), or only remapping its
+		 * indices to colors.
+		 */
+		private char[] field;
+		private boolean recordField;
+
+		/**
+		 * Factor by which this kernel's step field is downscaled when rendering; 1
+		 * unless rendering a preview.
+		 */
+		private int downscale = 1;
+
+		/**
+		 * Declares that this kernel's step field is mirror-symmetric about the lines
+		 * x=mx and y=my, so only one quadrant of steps needs computing. An axis is
+		 * only used when it lands exactly on a pixel center or between two pixels; NaN
+		 * declares no symmetry about that axis.
+		 */
+		final void mirrorAbout(double mx, double my) {
+			mirrorX2 = mirrorAxis(mx);
+			mirrorY2 = mirrorAxis(my);
+		}
+
+		/**
+		 * @return whether this kernel should {@link #identifyField(Object...) identify}
+		 *         its step field: only when the field may be retained, or rendered for
+		 *         interactive mode, so other renders don't box kernel parameters
+		 */
+		final boolean identifiesField() {
+			return retainStepField || interactive;
+		}
+
+		/**
+		 * Identifies this kernel's step field by the parameters that determine it,
+		 * besides the render region. Two kernels of the same type with equal
+		 * parameters must compute identical steps. Arrays are compared by identity.
+		 */
+		final void identifyField(Object... params) {
+			fieldKey = params;
+		}
+
+		private int mirrorAxis(double m) {
+			if (Double.isNaN(m)) {
+				return NO_MIRROR;
+			}
+			final double m2 = 2 * m;
+			final double m2Rounded = Math.rint(m2);
+			if (Math.abs(m2 - m2Rounded) > SYMMETRY_EPSILON || Math.abs(m2Rounded) > Integer.MAX_VALUE / 2) {
+				return NO_MIRROR;
+			}
+			return (int) m2Rounded;
+		}
+
+		/**
+		 * Computes the (unclamped) gradient step of the pixels [x0, x1) within row y of
+		 * the render region. The step of pixel x is written to
+		 * <code>steps[x - x0]</code>.
+		 * 
+		 * @param y     row, relative to the render region
+		 * @param x0    first column (inclusive), relative to the render region
+		 * @param x1    last column (exclusive), relative to the render region
+		 * @param steps output array of at least <code>x1 - x0</code> length
+		 */
+		abstract void computeSteps(int y, int x0, int x1, double[] steps);
+
+		/**
+		 * Returns the approximate per-pixel cost of this kernel, relative to the
+		 * linear kernel (which has a cost of 1). Used to decide whether a render is
+		 * small enough to run on the calling thread.
+		 */
+		int cost() {
+			return 1;
+		}
+
+		/**
+		 * Returns whether this kernel's steps wrap around (such as angles do), so
+		 * that steps near 0 and near 1 are adjacent. Used to interpolate steps across
+		 * the wrap when anti-aliasing.
+		 */
+		boolean periodic() {
+			return false;
+		}
+
+		/**
+		 * Called once a render has computed the steps of every pixel of the render
+		 * region (rather than remapping a retained step field).
+		 */
+		void stepsComputed() {
+		}
+
+		/**
+		 * Renders a rectangular tile of the render region: computes the step of each
+		 * pixel, then writes the LUT color at the (dithered) step into the pixels
+		 * array (or the gradient's color at the step, when sampling per pixel).
+		 * 
+		 * @param x0 first column (inclusive), relative to the render region
+		 * @param y0 first row (inclusive), relative to the render region
+		 * @param x1 last column (exclusive), relative to the render region
+		 * @param y1 last row (exclusive), relative to the render region
+		 */
+		@Override
+		public final void renderTile(final int x0, final int y0, final int x1, final int y1) {
+			if (field != null) {
+				if (recordField) {
+					recordFieldTile(x0, y0, x1, y1);
+				} else {
+					remapFieldTile(x0, y0, x1, y1);
+				}
+				return;
+			}
+			if (downscale > 1) {
+				renderPreviewTile(x0, y0, x1, y1);
+				return;
+			}
+			if (antiAliasing > 1) {
+				renderAntiAliasedTile(x0, y0, x1, y1);
+				return;
+			}
+			if ((mirrorX2 != NO_MIRROR || mirrorY2 != NO_MIRROR) && confinedToTiles()) { // (mirrored pixels may lie outside the tile)
+				renderMirroredTile(x0, y0, x1, y1);
+				return;
+			}
+			final double[] steps = stepBuffer(x1 - x0);
+
+			int pixel = (y0 + renderOffsetY) * gradientPG.width + renderOffsetX; // start of first row within region
+			for (int y = y0; y < y1; y++) {
+				computeSteps(y, x0, x1, steps);
+				shadeRow(y, x0, x1, steps, pixel);
+				pixel += gradientPG.width; // jump to the beginning of the next row
+			}
+		}
+
+		/**
+		 * Writes the colors of pixels [x0, x1) within row y, given their steps: the
+		 * LUT color at the (dithered) step of each pixel, or the gradient's color at
+		 * the step, when sampling per pixel.
+		 * 
+		 * @param pixel index into the pixels array of the first pixel of the row
+		 *              within the render region
+		 */
+		private void shadeRow(final int y, final int x0, final int x1, final double[] steps, final int pixel) {
+			final int[] pixels = gradientPG.pixels;
+			final int[] lut = gradientCache;
+			final int lutSize = gradientCacheSize;
+			final int[] dither = ditherOffsets;
+			if (pixelGradient != null) {
+				for (int x = x0, i = 0; x < x1; x++, i++) {
+					pixels[pixel + x] = colorAt(steps[i], x, y);
+				}
+			} else if (dither == null) {
+				for (int x = x0, i = 0; x < x1; x++, i++) {
+					double t = steps[i];
+					t = (t < 0) ? 0 : (t > 1 ? 1 : t); // clamp between 0...1
+					pixels[pixel + x] = lut[Math.min((int) (t * lutSize), lutSize - 1)];
+				}
+			} else {
+				final int ditherMask = PeasyGradients.this.ditherMask;
+				final int ditherRow = (y & ditherMask) << ditherShift;
+				for (int x = x0, i = 0; x < x1; x++, i++) {
+					double t = steps[i];
+					t = (t < 0) ? 0 : (t > 1 ? 1 : t); // clamp between 0...1
+					int stepInt = (int) (t * lutSize) + dither[ditherRow | (x & ditherMask)]; // dither
+					stepInt = stepInt < 0 ? 0 : (stepInt < lutSize ? stepInt : lutSize - 1); // reclamp
+					pixels[pixel + x] = lut[stepInt];
+				}
+			}
+		}
+
+		/**
+		 * Renders a tile with adaptive anti-aliasing. Each pixel whose color differs
+		 * from that of any of its 4 neighbours by more than {@link #EDGE_THRESHOLD}
+		 * is supersampled on a regular grid; the step of each sample is bilinearly
+		 * interpolated from the steps of the pixel and its neighbours (towards the
+		 * sample), and the sample colors are averaged channel-wise. Mirror symmetry is
+		 * ignored.
+		 */
+		private void renderAntiAliasedTile(final int x0, final int y0, final int x1, final int y1) {
+			final int[] pixels = gradientPG.pixels;
+			final int n = x1 - x0;
+			/*
+			 * Steps and colors of the rows above, of, and below the current row, padded
+			 * with a column either side; rolled down a row at a time.
+			 */
+			final double[][] stepRows = stepRows(3, n + 2);
+			final int[][] colorRows = intRows(3, n + 2);
+			double[] stepsAbove = stepRows[0], steps = stepRows[1], stepsBelow = stepRows[2];
+			int[] colorsAbove = colorRows[0], colors = colorRows[1], colorsBelow = colorRows[2];
+			paddedRow(Math.max(y0 - 1, 0), x0, x1, stepsAbove, colorsAbove);
+			paddedRow(y0, x0, x1, steps, colors);
+
+			final int samples = antiAliasing;
+			final int sampleCount = samples * samples;
+			int pixel = (y0 + renderOffsetY) * gradientPG.width + renderOffsetX;
+			for (int y = y0; y < y1; y++) {
+				paddedRow(Math.min(y + 1, renderHeight - 1), x0, x1, stepsBelow, colorsBelow);
+				for (int x = x0, i = 1; x < x1; x++, i++) {
+					final int color = colors[i];
+					if (!isEdge(color, colors[i - 1]) && !isEdge(color, colors[i + 1]) && !isEdge(color, colorsAbove[i])
+							&& !isEdge(color, colorsBelow[i])) {
+						pixels[pixel + x] = color;
+						continue;
+					}
+					final double step = steps[i];
+					int a = 0, r = 0, g = 0, b = 0;
+					for (int sy = 0; sy < samples; sy++) {
+						final double v = (sy + 0.5) / samples - 0.5; // sample offset from pixel center, in (-0.5, 0.5)
+						final double[] rowY = v < 0 ? stepsAbove : stepsBelow;
+						final double dv = Math.abs(v);
+						for (int sx = 0; sx < samples; sx++) {
+							final double u = (sx + 0.5) / samples - 0.5;
+							final int j = u < 0 ? i - 1 : i + 1;
+							final double du = Math.abs(u);
+							final double dx = stepDelta(steps[j], step);
+							final double dy = stepDelta(rowY[i], step);
+							final double dxy = stepDelta(rowY[j], step);
+							double t = step + du * dx + dv * dy + du * dv * (dxy - dx - dy);
+							if (periodic()) {
+								t -= Math.floor(t);
+							}
+							final int sample = colorAt(t, x, y);
+							a += sample >>> 24;
+							r += (sample >> 16) & 0xff;
+							g += (sample >> 8) & 0xff;
+							b += sample & 0xff;
+						}
+					}
+					pixels[pixel + x] = (a / sampleCount) << 24 | (r / sampleCount) << 16 | (g / sampleCount) << 8 | (b / sampleCount);
+				}
+
+				// roll rows
+				final double[] stepsSwap = stepsAbove;
+				stepsAbove = steps;
+				steps = stepsBelow;
+				stepsBelow = stepsSwap;
+				final int[] colorsSwap = colorsAbove;
+				colorsAbove = colors;
+				colors = colorsBelow;
+				colorsBelow = colorsSwap;
+				pixel += gradientPG.width;
+			}
+		}
+
+		/**
+		 * Renders a tile at preview quality. Steps are computed only at the nodes of a
+		 * grid spaced {@link #downscale} pixels apart (whose last row and column are
+		 * moved onto the edges of the render region); the step of each pixel is
+		 * bilinearly interpolated from the four nodes around it (first down columns of
+		 * nodes, then along the row), and its color looked up as usual. Mirror
+		 * symmetry and anti-aliasing are ignored.
+		 */
+		private void renderPreviewTile(final int x0, final int y0, final int x1, final int y1) {
+			final int k = downscale;
+			final int n = x1 - x0;
+			final int gx0 = x0 / k;
+			final int columns = (x1 - 1) / k + 2 - gx0; // nodes either side of every pixel of the tile
+			final double[][] rows = stepRows(6, Math.max(n, columns));
+			final int[] cells = intRows(1, n)[0]; // index of the node before each pixel of a row
+			final double[] weights = rows[0]; // weight of the node after each pixel of a row
+			for (int x = x0, i = 0; x < x1; x++, i++) {
+				cells[i] = x / k - gx0;
+				weights[i] = weight(x, x / k * k, renderWidth);
+			}
+
+			double[] above = rows[1], below = rows[2];
+			final double[] vertical = rows[3]; // step differences down each column of nodes
+			final double[] column = rows[4]; // steps down each column of nodes, at the current row
+			final double[] horizontal = rows[5]; // step differences between adjacent columns, at the current row
+			final double[] steps = stepBuffer(n);
+			int gy = y0 / k - 1;
+			previewRow(gy + 1, gx0, columns, below); // (rolled up into above, for the first row of the tile)
+
+			int pixel = (y0 + renderOffsetY) * gradientPG.width + renderOffsetX;
+			for (int y = y0; y < y1; y++) {
+				if (y / k != gy) { // roll nodes down a grid row
+					gy++;
+					final double[] swap = above;
+					above = below;
+					below = swap;
+					previewRow(gy + 1, gx0, columns, below);
+					for (int i = 0; i < columns; i++) {
+						vertical[i] = stepDelta(below[i], above[i]);
+					}
+				}
+				final double v = weight(y, gy * k, renderHeight);
+				for (int i = 0; i < columns; i++) {
+					column[i] = above[i] + v * vertical[i];
+				}
+				for (int i = 0; i < columns - 1; i++) {
+					horizontal[i] = stepDelta(column[i + 1], column[i]);
+				}
+				for (int i = 0; i < n; i++) {
+					final int cell = cells[i];
+					steps[i] = column[cell] + weights[i] * horizontal[cell];
+				}
+				if (periodic()) {
+					for (int i = 0; i < n; i++) {
+						steps[i] -= Math.floor(steps[i]);
+					}
+				}
+				shadeRow(y, x0, x1, steps, pixel);
+				pixel += gradientPG.width;
+			}
+		}
+
+		/**
+		 * Computes the steps of the given number of nodes of row gy of the preview
+		 * grid, from column gx0 onwards.
+		 */
+		private void previewRow(final int gy, final int gx0, final int count, final double[] nodes) {
+			final int k = downscale;
+			final int y = Math.min(gy * k, renderHeight - 1);
+			final double[] step = stepRows(7, 1)[6];
+			final int inside = Math.max(0, Math.min(count, (renderWidth - 1) / k + 1 - gx0)); // nodes within the region
+			for (int i = 0, x = gx0 * k; i < inside; i++, x += k) {
+				computeSteps(y, x, x + 1, step);
+				nodes[i] = step[0];
+			}
+			if (inside < count) { // the remaining nodes are moved onto the region's last column
+				computeSteps(y, renderWidth - 1, renderWidth, step);
+				Arrays.fill(nodes, inside, count, step[0]);
+			}
+		}
+
+		/**
+		 * @return the weight of the next node of the preview grid, for a pixel at the
+		 *         given coordinate along an axis whose previous node is at the given
+		 *         coordinate
+		 */
+		private double weight(final int coordinate, final int node, final int length) {
+			final int next = Math.min(node + downscale, length - 1); // (the last node is moved onto the edge)
+			return coordinate > node && next > node ? (coordinate - node) / (double) (next - node) : 0;
+		}
+
+		/**
+		 * Computes the steps and colors of pixels [x0 - 1, x1 + 1) of row y into the
+		 * given arrays, replicating the pixels at the edges of the render region for
+		 * columns beyond it.
+		 */
+		private void paddedRow(final int y, final int x0, final int x1, final double[] steps, final int[] colors) {
+			final int from = Math.max(x0 - 1, 0);
+			final int to = Math.min(x1 + 1, renderWidth);
+			final int offset = from - (x0 - 1); // 1 if the left padding column is beyond the region
+			final double[] rowSteps = stepBuffer(to - from);
+			computeSteps(y, from, to, rowSteps);
+			System.arraycopy(rowSteps, 0, steps, offset, to - from);
+			if (offset == 1) {
+				steps[0] = steps[1];
+			}
+			if (to == x1) {
+				steps[x1 - x0 + 1] = steps[x1 - x0];
+			}
+			for (int x = x0 - 1, i = 0; x <= x1; x++, i++) {
+				colors[i] = colorAt(steps[i], Math.max(0, Math.min(x, renderWidth - 1)), y);
+			}
+		}
+
+		/**
+		 * @return the difference between two steps, or for periodic kernels, the
+		 *         shortest difference around the wrap
+		 */
+		private double stepDelta(double step, double from) {
+			final double delta = step - from;
+			return periodic() ? delta - Math.rint(delta) : delta;
+		}
+
+		/**
+		 * Renders a tile, recording the LUT index of each pixel into the step field.
+		 * Mirror symmetry is ignored, since the field is only recorded once.
+		 */
+		private void recordFieldTile(final int x0, final int y0, final int x1, final int y1) {
+			final int[] pixels = gradientPG.pixels;
+			final int[] lut = gradientCache;
+			final char[] field = this.field;
+			final double[] steps = stepBuffer(x1 - x0);
+
+			int pixel = (y0 + renderOffsetY) * gradientPG.width + renderOffsetX;
+			int cell = y0 * renderWidth; // start of first row within field
+			for (int y = y0; y < y1; y++) {
+				computeSteps(y, x0, x1, steps);
+				for (int x = x0, i = 0; x < x1; x++, i++) {
+					final int stepInt = clampAndDither(steps[i], x, y);
+					field[cell + x] = (char) stepInt;
+					pixels[pixel + x] = lut[stepInt];
+				}
+				pixel += gradientPG.width;
+				cell += renderWidth;
+			}
+		}
+
+		/**
+		 * Renders a tile by looking up the LUT color of each pixel's recorded LUT
+		 * index, without computing any steps.
+		 */
+		private void remapFieldTile(final int x0, final int y0, final int x1, final int y1) {
+			final int[] pixels = gradientPG.pixels;
+			final int[] lut = gradientCache;
+			final char[] field = this.field;
+
+			int pixel = (y0 + renderOffsetY) * gradientPG.width + renderOffsetX;
+			int cell = y0 * renderWidth;
+			for (int y = y0; y < y1; y++) {
+				for (int x = x0; x < x1; x++) {
+					pixels[pixel + x] = lut[field[cell + x]];
+				}
+				pixel += gradientPG.width;
+				cell += renderWidth;
+			}
+		}
+
+		/**
+		 * Renders a tile of a mirror-symmetric kernel. Steps are computed only for the
+		 * tile's canonical pixels (those not themselves the mirror image of another
+		 * pixel in the region), and each is written to the pixel and its mirror images.
+		 * Other pixels in the tile are written by whichever tile contains their
+		 * canonical pixel. Dither is applied per destination pixel, so remains
+		 * position-dependent.
+		 */
+		private void renderMirroredTile(final int x0, final int y0, final int x1, final int y1) {
+			final double[] steps = stepBuffer(x1 - x0);
+
+			/*
+			 * Columns in (mirrorX2/2, mirrorX2] are mirrors of canonical columns, leaving
+			 * (at most) two canonical column spans within the tile: before and after them.
+			 */
+			final int xSplit = mirrorX2 == NO_MIRROR ? x1 : Math.max(x0, Math.min(x1, Math.floorDiv(mirrorX2, 2) + 1));
+			final int xResume = mirrorX2 == NO_MIRROR ? x1 : Math.max(xSplit, Math.min(x1, mirrorX2 + 1));
+			final int yCanonicalEnd = mirrorY2 == NO_MIRROR ? Integer.MAX_VALUE : Math.floorDiv(mirrorY2, 2);
+
+			for (int y = y0; y < y1; y++) {
+				if (y > yCanonicalEnd && y <= mirrorY2) {
+					continue; // row is written by its mirror
+				}
+				int yMirror = mirrorY2 == NO_MIRROR ? -1 : mirrorY2 - y;
+				if (yMirror == y || yMirror >= renderHeight) {
+					yMirror = -1;
+				}
+
+				if (xSplit > x0) {
+					computeSteps(y, x0, xSplit, steps);
+					writeMirrored(x0, xSplit, y, yMirror, steps);
+				}
+				if (x1 > xResume) {
+					computeSteps(y, xResume, x1, steps);
+					writeMirrored(xResume, x1, y, yMirror, steps);
+				}
+			}
+		}
+
+		private void writeMirrored(final int x0, final int x1, final int y, final int yMirror, final double[] steps) {
+			final int[] pixels = gradientPG.pixels;
+			final int row = (y + renderOffsetY) * gradientPG.width + renderOffsetX;
+			final int rowMirror = (yMirror + renderOffsetY) * gradientPG.width + renderOffsetX;
+			for (int x = x0, i = 0; x < x1; x++, i++) {
+				final double step = steps[i];
+				int xMirror = mirrorX2 == NO_MIRROR ? -1 : mirrorX2 - x;
+				if (xMirror == x || xMirror >= renderWidth) {
+					xMirror = -1;
+				}
+
+				pixels[row + x] = colorAt(step, x, y);
+				if (xMirror >= 0) {
+					pixels[row + xMirror] = colorAt(step, xMirror, y);
+				}
+				if (yMirror >= 0) {
+					pixels[rowMirror + x] = colorAt(step, x, yMirror);
+					if (xMirror >= 0) {
+						pixels[rowMirror + xMirror] = colorAt(step, xMirror, yMirror);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return whether two colors differ by more than {@link #EDGE_THRESHOLD} in any
+	 *         channel
+	 */
+	private static boolean isEdge(int color, int other) {
+		for (int shift = 0; shift < 32; shift += 8) {
+			if (Math.abs((color >>> shift & 0xff) - (other >>> shift & 0xff)) > EDGE_THRESHOLD) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether a rotation (given by its sine and cosine) is a multiple of
+	 *         pi/4, under which square-symmetric fields remain mirror-symmetric
+	 *         about the horizontal and vertical axes
+	 */
+	private static boolean isOctantAligned(double sin, double cos) {
+		final double absSin = Math.abs(sin), absCos = Math.abs(cos);
+		return absSin < SYMMETRY_EPSILON || absCos < SYMMETRY_EPSILON || Math.abs(absSin - absCos) < SYMMETRY_EPSILON;
+	}
+
+	/**
+	 * @return whether an angle is a multiple of the given angle (within
+	 *         {@link #SYMMETRY_EPSILON})
+	 */
+	private static boolean isMultiple(double angle, double of) {
+		final double remainder = angle - Math.floor(angle / of) * of;
+		return remainder < SYMMETRY_EPSILON || of - remainder < SYMMETRY_EPSILON;
+	}
+
+	private final class LinearKernel extends RenderKernel {
+
+		private final double odX, odY;
+		private final double odSqInverse;
+		private final double opXod;
+
+		LinearKernel(double odX, double odY, double odSqInverse, double opXod) {
+			this.odX = odX;
+			this.odY = odY;
+			this.odSqInverse = odSqInverse;
+			this.opXod = opXod;
+			if (identifiesField()) {
+				identifyField(odX, odY, odSqInverse, opXod);
+			}
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			/*
+			 * Usually we'd call Functions.linearProject() to calculate step at each pixel,
+			 * but the function is inlined here to optimise speed. Step is affine in x, so
+			 * it is computed at each anchor column and forward-differenced (one addition
+			 * per pixel) thereafter.
+			 */
+			final double rowOpXod = opXod + (y + 1) * odY * scaleY;
+			final double dStep = odX * scaleX * odSqInverse;
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				double step = (rowOpXod + anchor * odX * scaleX) * odSqInverse;
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					step += dStep;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++) {
+					steps[i] = step;
+					step += dStep;
+				}
+			}
+		}
+
+		/**
+		 * Renders the first row of the region and copies it into the remaining rows.
+		 * Only valid for a horizontal gradient with no dithering.
+		 */
+		void renderReplicatedRow() {
+			final int[] pixels = gradientPG.pixels;
+			renderTile(0, 0, renderWidth, 1);
+			final int firstRow = renderOffsetY * gradientPG.width + renderOffsetX;
+			for (int y = 1, pixel = firstRow + gradientPG.width; y < renderHeight; y++, pixel += gradientPG.width) {
+				System.arraycopy(pixels, firstRow, pixels, pixel, renderWidth);
+			}
+		}
+
+		/**
+		 * Computes one step per row and fills each row of the region with its color.
+		 * Only valid for a vertical gradient with no dithering.
+		 */
+		void renderConstantRows() {
+			final int[] pixels = gradientPG.pixels;
+			final double[] steps = stepBuffer(1);
+			int pixel = renderOffsetY * gradientPG.width + renderOffsetX;
+			for (int y = 0; y < renderHeight; y++, pixel += gradientPG.width) {
+				computeSteps(y, 0, 1, steps);
+				Arrays.fill(pixels, pixel, pixel + renderWidth, colorAt(steps[0], 0, y));
+			}
+		}
+
+	}
+
+	private final class RadialKernel extends RenderKernel {
+
+		private final double renderMidpointX, renderMidpointY;
+		private final double zoom;
+
+		RadialKernel(double renderMidpointX, double renderMidpointY, double zoom) {
+			this.renderMidpointX = renderMidpointX;
+			this.renderMidpointY = renderMidpointY;
+			this.zoom = zoom;
+			mirrorAbout(renderMidpointX, renderMidpointY);
+			if (identifiesField()) {
+				identifyField(renderMidpointX, renderMidpointY, zoom);
+			}
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			double rise = renderMidpointY - y;
+			rise *= rise;
+			/*
+			 * distSq is quadratic in x, so step along the row from each anchor column with
+			 * second-order forward differences: d(distSq)/dx = 1 - 2*run, which itself
+			 * increases by 2 per pixel. When the midpoint lies on a pixel or half-pixel
+			 * (as it must for the field to be mirrored), these are exact, so distSq is
+			 * exactly symmetric about the midpoint.
+			 */
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				final double run = renderMidpointX - anchor;
+				double distSq = run * run + rise;
+				double dDistSq = 1 - 2 * run;
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					distSq += dDistSq;
+					dDistSq += 2;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++) {
+					steps[i] = zoom * distSq;
+					distSq += dDistSq;
+					dDistSq += 2;
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * A per-pixel field of the render region that depends only on a center point
+	 * (and, for distance fields, an exponent): either the angle of each pixel about
+	 * the center, in turns, or the distance of each pixel from the center,
+	 * normalised by the region's diagonal and raised to the exponent. Computed
+	 * during the first render that uses it, by whichever tiles cover each pixel.
+	 */
+	private static final class PolarField {
+
+		private final double centerX, centerY;
+		private final int width, height;
+		private final double exponent; // NaN for an angle field
+		private final float[] values;
+		private boolean computed; // whether every value has been computed
+
+		PolarField(double centerX, double centerY, int width, int height, double exponent, float[] values) {
+			this.centerX = centerX;
+			this.centerY = centerY;
+			this.width = width;
+			this.height = height;
+			this.exponent = exponent;
+			this.values = values;
+		}
+
+		boolean matches(double centerX, double centerY, int width, int height, double exponent) {
+			return this.centerX == centerX && this.centerY == centerY && this.width == width && this.height == height
+					&& Double.compare(this.exponent, exponent) == 0;
+		}
+
+		/**
+		 * Computes the values of pixels [x0, x1) within row y, unless every value has
+		 * already been computed.
+		 */
+		void computeRow(int y, int x0, int x1) {
+			if (computed) {
+				return;
+			}
+			final double dy = y - centerY;
+			double dx = x0 - centerX;
+			int cell = y * width + x0;
+			if (Double.isNaN(exponent)) {
+				for (int x = x0; x < x1; x++, dx++, cell++) {
+					final float turns = (float) Functions.fastAtan2Turns(dy, dx);
+					values[cell] = turns < 1 ? turns : 0; // rounding to float may produce 1
+				}
+			} else {
+				final double denominator = 1d / ((double) width * width + (double) height * height);
+				for (int x = x0; x < x1; x++, dx++, cell++) {
+					final double distSq = (dy * dy + dx * dx) * denominator;
+					values[cell] = (float) (exponent == 0.5 ? Math.sqrt(distSq) : FastPow.fastPow(distSq, exponent));
+				}
+			}
+		}
+	}
 
-					final int stepInt = clampAndDither(step, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
+	/**
+	 * @return the cached angle field about the given center (computed or not),
+	 *         replacing the cached field if it is about another center; null if
+	 *         not caching polar fields
+	 */
+	private PolarField angleField(double centerX, double centerY) {
+		return cachePolarFields ? (angleField = polarField(angleField, centerX, centerY, Double.NaN)) : null;
+	}
+
+	/**
+	 * @return the cached distance field about the given center with the given
+	 *         exponent (computed or not), replacing the cached field if it differs;
+	 *         null if not caching polar fields
+	 */
+	private PolarField radiusField(double centerX, double centerY, double exponent) {
+		return cachePolarFields ? (radiusField = polarField(radiusField, centerX, centerY, exponent)) : null;
+	}
+
+	private PolarField polarField(PolarField field, double centerX, double centerY, double exponent) {
+		if (field != null && field.matches(centerX, centerY, renderWidth, renderHeight, exponent)) {
+			return field;
+		}
+		final int size = renderWidth * renderHeight;
+		final float[] values = field != null && field.values.length == size ? field.values : new float[size]; // reuse array
+		return new PolarField(centerX, centerY, renderWidth, renderHeight, exponent, values);
+	}
+
+	private final class ConicKernel extends RenderKernel {
+
+		private final double renderMidpointX, renderMidpointY;
+		private final double angle;
+		private final PolarField angles; // null when not caching
+
+		ConicKernel(double renderMidpointX, double renderMidpointY, double angle) {
+			this.renderMidpointX = renderMidpointX;
+			this.renderMidpointY = renderMidpointY;
+			this.angle = Functions.floorMod(angle * INV_TWO_PI, 1); // in turns, [0, 1)
+			angles = angleField(renderMidpointX, renderMidpointY);
+			if (identifiesField()) {
+				identifyField(renderMidpointX, renderMidpointY, this.angle, angles != null);
+			}
+		}
+
+		@Override
+		int cost() {
+			return angles != null && angles.computed ? 1 : 2;
+		}
+
+		@Override
+		boolean periodic() {
+			return true;
+		}
+
+		@Override
+		void stepsComputed() {
+			if (angles != null) {
+				angles.computed = true;
+			}
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			if (angles != null) {
+				angles.computeRow(y, x0, x1);
+				final float[] values = angles.values;
+				for (int i = 0, cell = y * renderWidth + x0, n = x1 - x0; i < n; i++, cell++) {
+					double t = values[cell] - angle; // rotation is an additive shift
+					if (t < 0) {
+						t += 1; // modulo
+					}
+					steps[i] = t;
+				}
+				return;
+			}
+			/*
+			 * Angle is measured from the midpoint to the pixel (rather than pixel to
+			 * midpoint), which adds PI to align bump with angle.
+			 */
+			final double dy = y - renderMidpointY;
+			double dx = x0 - renderMidpointX;
+			for (int i = 0, n = x1 - x0; i < n; i++, dx++) {
+				double t = Functions.fastAtan2Turns(dy, dx) - angle; // normalised: -1...1
+				if (t < 0) {
+					t += 1; // modulo
 				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
+				steps[i] = t;
+			}
+		}
+
+	}
+
+	/**
+	 * Kernel for variable-curviness spiral gradients.
+	 * 
+	 * @author Michael Carleton
+	 *
+	 */
+	private final class SpiralKernel extends RenderKernel {
+
+		private final double renderMidpointX, renderMidpointY;
+		private final double angle;
+		private final double curveCount;
+		private final double curviness;
+		private final double curveDenominator;
+		private final PolarField angles, radii; // null when not caching
+
+		SpiralKernel(double renderMidpointX, double renderMidpointY, double curveDenominator, double curviness, double angle, double curveCount) {
+			this.renderMidpointX = renderMidpointX;
+			this.renderMidpointY = renderMidpointY;
+			this.curveCount = curveCount * INV_TWO_PI; // in turns
+			this.curveDenominator = curveDenominator;
+			this.angle = angle * INV_TWO_PI - 0.5; // in turns; -0.5 as angle is measured from midpoint to pixel
+			this.curviness = curviness;
+			angles = angleField(renderMidpointX, renderMidpointY);
+			radii = radiusField(renderMidpointX, renderMidpointY, curviness);
+			if (identifiesField()) {
+				identifyField(renderMidpointX, renderMidpointY, curveDenominator, curviness, angle, curveCount, angles != null);
 			}
+		}
+
+		@Override
+		int cost() {
+			return angles != null && angles.computed && radii.computed ? 1 : 3;
+		}
 
+		@Override
+		boolean periodic() {
 			return true;
 		}
 
+		@Override
+		void stepsComputed() {
+			if (angles != null) {
+				angles.computed = true;
+				radii.computed = true;
+			}
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			if (angles != null) {
+				angles.computeRow(y, x0, x1);
+				radii.computeRow(y, x0, x1);
+				final float[] angleValues = angles.values;
+				final float[] radiusValues = radii.values;
+				for (int i = 0, cell = y * renderWidth + x0, n = x1 - x0; i < n; i++, cell++) {
+					double t = angleValues[cell] - angle + radiusValues[cell] * curveCount; // curve count scales the distance term
+					t -= Math.floor(t); // modulo
+					steps[i] = t;
+				}
+				return;
+			}
+			final double dy = y - renderMidpointY;
+			final double dySquared = dy * dy;
+			double dx = x0 - renderMidpointX;
+			for (int i = 0, n = x1 - x0; i < n; i++, dx++) {
+				double t = Functions.fastAtan2Turns(dy, dx) - angle; // normalised
+				double spiralOffset = curviness == 0.5f ? Math.sqrt((dySquared + dx * dx) * curveDenominator)
+						: FastPow.fastPow((dySquared + dx * dx) * curveDenominator, curviness);
+				spiralOffset *= curveCount;
+				t += spiralOffset;
+
+				t -= Math.floor(t); // modulo
+				steps[i] = t;
+			}
+		}
+	}
+
+	private final class PolygonKernel extends RenderKernel {
+
+		private final double renderMidpointX, renderMidpointY;
+		private final double[] ratioLookup;
+		private final double lutScale;
+		private final double denominator;
+		/*
+		 * Whether the polygon is symmetric about the vertical (symmetricX) and
+		 * horizontal (symmetricY) axes through its midpoint. If so, steps are computed
+		 * from the absolute distance along that axis, making the field exactly
+		 * symmetric (despite the ratio lookup's discretization), so it can be
+		 * mirrored.
+		 */
+		private final boolean symmetricX, symmetricY;
+
+		PolygonKernel(double renderMidpointX, double renderMidpointY, double[] ratioLookup, double denominator, boolean symmetricX,
+				boolean symmetricY) {
+			this.renderMidpointX = renderMidpointX;
+			this.renderMidpointY = renderMidpointY;
+			this.ratioLookup = ratioLookup;
+			this.lutScale = (ratioLookup.length - 1) / 4d; // diamond angle is 0...4
+			this.denominator = denominator;
+			this.symmetricX = symmetricX;
+			this.symmetricY = symmetricY;
+			mirrorAbout(symmetricX ? renderMidpointX : Double.NaN, symmetricY ? renderMidpointY : Double.NaN);
+			if (identifiesField()) {
+				identifyField(renderMidpointX, renderMidpointY, ratioLookup, denominator); // (the lookup determines the symmetry)
+			}
+		}
+
+		@Override
+		int cost() {
+			return 2;
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yDist = symmetricY ? Math.abs(y - renderMidpointY) : y - renderMidpointY; // y distance between midpoint and a given pixel
+			double xDist = x0 - renderMidpointX; // x distance between midpoint and a given pixel
+			for (int i = 0, n = x1 - x0; i < n; i++, xDist++) {
+				final double pointDistance = Math.sqrt(yDist * yDist + xDist * xDist); // euclidean dist between (x,y) and midpoint
+
+				// Use LUT, indexed by the pseudo-angle of the pixel about the midpoint (0...4)
+				final double diamondAngle = Functions.diamondAngle(yDist, symmetricX ? Math.abs(xDist) : xDist);
+				final double polygonRatio = ratioLookup[(int) (diamondAngle * lutScale)];
+
+				steps[i] = polygonRatio * denominator * pointDistance;
+			}
+		}
+
+	}
+
+	private final class CrossKernel extends RenderKernel {
+
+		private final double renderMidpointX, renderMidpointY;
+		private final double denominator;
+		private final double sin, cos;
+
+		CrossKernel(double renderMidpointX, double renderMidpointY, double denominator, double sin, double cos) {
+			this.renderMidpointX = renderMidpointX;
+			this.renderMidpointY = renderMidpointY;
+			this.denominator = denominator;
+			this.sin = sin;
+			this.cos = cos;
+			if (isOctantAligned(sin, cos)) {
+				mirrorAbout(renderMidpointX, renderMidpointY);
+			}
+			if (identifiesField()) {
+				identifyField(renderMidpointX, renderMidpointY, denominator, sin, cos);
+			}
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yTranslate = (y - renderMidpointY);
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				// (x, y) rotated about midpoint, relative to midpoint; stepped by (cos, sin) per pixel
+				double rotX = (anchor - renderMidpointX) * cos - yTranslate * sin;
+				double rotY = yTranslate * cos + (anchor - renderMidpointX) * sin;
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					rotX += cos;
+					rotY += sin;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++) {
+					steps[i] = Math.min(Math.abs(rotY), Math.abs(rotX)) / denominator; // min
+					rotX += cos;
+					rotY += sin;
+				}
+			}
+		}
+
+	}
+
+	private final class DiamondKernel extends RenderKernel {
+
+		private final double renderMidpointX, renderMidpointY;
+		private final double denominator;
+		private final double sin, cos;
+
+		DiamondKernel(double renderMidpointX, double renderMidpointY, double denominator, double sin, double cos) {
+			this.renderMidpointX = renderMidpointX;
+			this.renderMidpointY = renderMidpointY;
+			this.denominator = denominator;
+			this.sin = sin;
+			this.cos = cos;
+			if (isOctantAligned(sin, cos)) {
+				mirrorAbout(renderMidpointX, renderMidpointY);
+			}
+			if (identifiesField()) {
+				identifyField(renderMidpointX, renderMidpointY, denominator, sin, cos);
+			}
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yTranslate = (y - renderMidpointY);
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				// (x, y) rotated about midpoint, relative to midpoint; stepped by (cos, sin) per pixel
+				double rotX = (anchor - renderMidpointX) * cos - yTranslate * sin;
+				double rotY = yTranslate * cos + (anchor - renderMidpointX) * sin;
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					rotX += cos;
+					rotY += sin;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++) {
+					steps[i] = Math.max(Math.abs(rotY), Math.abs(rotX)) / denominator; // max
+					rotX += cos;
+					rotY += sin;
+				}
+			}
+		}
+
+	}
+
+	private class NoiseKernel extends RenderKernel {
+
+		final FastNoiseLite noise;
+		final double centerX, centerY;
+		final double sin, cos;
+
+		NoiseKernel(FastNoiseLite noise, PVector centerPoint, double sin, double cos) {
+			this.noise = noise;
+			this.centerX = centerPoint.x;
+			this.centerY = centerPoint.y;
+			this.sin = sin;
+			this.cos = cos;
+		}
+
+		@Override
+		int cost() {
+			return 4;
+		}
+
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yTranslate = (y - centerY);
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				double newXpos = (anchor - centerX) * cos - yTranslate * sin + centerX; // rotate x about midpoint
+				double newYpos = yTranslate * cos + (anchor - centerX) * sin + centerY; // rotate y about midpoint
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					newXpos += cos;
+					newYpos += sin;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++) {
+					steps[i] = noise.getSimplexNoiseFast((float) newXpos, (float) newYpos); // call custom method
+					newXpos += cos;
+					newYpos += sin;
+				}
+			}
+		}
+
 	}
 
-	private final class UniformNoiseThread extends NoiseThread {
+	private final class UniformNoiseKernel extends NoiseKernel {
 
 		private final double z;
 		private final double scale;
 
-		UniformNoiseThread(int rowOffset, int rows, PVector centerPoint, double sin, double cos, double scale, double z) {
-			super(rowOffset, rows, centerPoint, sin, cos);
+		UniformNoiseKernel(PVector centerPoint, double sin, double cos, double scale, double z) {
+			super(null, centerPoint, sin, cos); // samples uniform noise instead
 			this.scale = 1 / (200 * scale);
 			this.z = z;
+			if (identifiesField()) {
+				identifyField(centerX, centerY, sin, cos, scale, z);
+			}
 		}
 
 		@Override
-		public Boolean call() {
-
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				final double yTranslate = (y - centerPoint.y);
-				for (int x = 0; x < renderWidth; x++) {
-					double newXpos = (x - centerPoint.x) * cos - yTranslate * sin + centerPoint.x; // rotate x about midpoint
-					double newYpos = yTranslate * cos + (x - centerPoint.x) * sin + centerPoint.y; // rotate y about midpoint
-
-					double step = uniformNoise.uniformNoise(scale * newXpos, newYpos * scale, z);
+		int cost() {
+			return 8;
+		}
 
-					final int stepInt = clampAndDither(step, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yTranslate = (y - centerY);
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				double newXpos = (anchor - centerX) * cos - yTranslate * sin + centerX; // rotate x about midpoint
+				double newYpos = yTranslate * cos + (anchor - centerX) * sin + centerY; // rotate y about midpoint
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					newXpos += cos;
+					newYpos += sin;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++) {
+					steps[i] = uniformNoise.uniformNoise(scale * newXpos, newYpos * scale, z);
+					newXpos += cos;
+					newYpos += sin;
 				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
 			}
-
-			return true;
 		}
 
 	}
 
-	private final class FractalNoiseThread extends RenderThread {
+	private final class FractalNoiseKernel extends RenderKernel {
 
-		private final PVector centerPoint;
+		private final FastNoiseLite noise;
+		private final double centerX, centerY;
 		private final double sin, cos;
 		private final double min, maxMinDenom;
+		private final int octaves;
 
-		FractalNoiseThread(int rowOffset, int rows, PVector centerPoint, double sin, double cos, double min, double maxMinDenom) {
-			super(rowOffset, rows);
-			this.centerPoint = centerPoint;
+		FractalNoiseKernel(FastNoiseLite noise, PVector centerPoint, double sin, double cos, double min, double maxMinDenom, int octaves) {
+			this.noise = noise;
+			this.centerX = centerPoint.x;
+			this.centerY = centerPoint.y;
 			this.sin = sin;
 			this.cos = cos;
 			this.min = min;
 			this.maxMinDenom = maxMinDenom;
+			this.octaves = octaves;
 		}
 
 		@Override
-		public Boolean call() {
-
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				final double yTranslate = (y - centerPoint.y);
-				for (int x = 0; x < renderWidth; x++) {
-					double newXpos = (x - centerPoint.x) * cos - yTranslate * sin + centerPoint.x; // rotate x about midpoint
-					double newYpos = yTranslate * cos + (x - centerPoint.x) * sin + centerPoint.y; // rotate y about midpoint
-
-					double step = fastNoiseLite.GetNoise((float) newXpos, (float) newYpos);
-					step = ((step - min) * (maxMinDenom)); // scale to 0...1
+		int cost() {
+			return 4 * Math.max(1, octaves); // each octave samples the noise again
+		}
 
-					final int stepInt = clampAndDither(step, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yTranslate = (y - centerY);
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				double newXpos = (anchor - centerX) * cos - yTranslate * sin + centerX; // rotate x about midpoint
+				double newYpos = yTranslate * cos + (anchor - centerX) * sin + centerY; // rotate y about midpoint
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					newXpos += cos;
+					newYpos += sin;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++) {
+					double step = noise.GetNoise((float) newXpos, (float) newYpos);
+					steps[i] = ((step - min) * (maxMinDenom)); // scale to 0...1
+					newXpos += cos;
+					newYpos += sin;
 				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
 			}
-
-			return true;
 		}
 
 	}
 
-	private final class SpotlightThread extends RenderThread {
+	private final class SpotlightKernel extends RenderKernel {
 
-		private final PVector originPoint;
+		private final double originX, originY;
 		private final double beamAngle;
 		private final double xDiffMax;
 		private final double sin, cos;
 
-		SpotlightThread(int rowOffset, int rows, PVector originPoint, double sin, double cos, double beamAngle, double xDiffMax) {
-			super(rowOffset, rows);
-			this.originPoint = originPoint;
+		SpotlightKernel(PVector originPoint, double sin, double cos, double beamAngle, double xDiffMax) {
+			this.originX = originPoint.x;
+			this.originY = originPoint.y;
 			this.sin = sin;
 			this.cos = cos;
 			this.beamAngle = beamAngle;
 			this.xDiffMax = xDiffMax;
+			if (identifiesField()) {
+				identifyField(originX, originY, sin, cos, beamAngle, xDiffMax);
+			}
 		}
 
 		@Override
-		public Boolean call() {
+		int cost() {
+			return 2;
+		}
 
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				final double yTranslate = (y - originPoint.y);
-				for (int x = 0; x < renderWidth; x++) {
-					double newXpos = (x - originPoint.x) * cos - yTranslate * sin + originPoint.x; // rotate x about midpoint
-					double newYpos = yTranslate * cos + (x - originPoint.x) * sin + originPoint.y; // rotate y about midpoint
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yTranslate = (y - originY);
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				// (x, y) rotated about origin, relative to origin; stepped by (cos, sin) per pixel
+				double rotX = (anchor - originX) * cos - yTranslate * sin;
+				double rotY = yTranslate * cos + (anchor - originX) * sin;
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					rotX += cos;
+					rotY += sin;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++, rotX += cos, rotY += sin) {
 
 					/*
 					 * Calculate the max X difference between this pixel and centrepoint.x when
 					 * light fall off reaches the maximum (step = 1) for a given row (at an angle)
 					 */
-					double fallOffWidth = xDiffMax * ((newYpos - originPoint.y) / renderHeight * beamAngle);
+					double fallOffWidth = xDiffMax * (rotY / renderHeight * beamAngle);
 					if (fallOffWidth < 0) { // may be negative if centrePoint.y out of screen
 						fallOffWidth = Double.MIN_VALUE; // avoid divide by zero error
 					}
 
-					double xDiff = Math.abs(newXpos - originPoint.x); // actual difference in x between this pixel and centerpoint.x
+					double xDiff = Math.abs(rotX); // actual difference in x between this pixel and centerpoint.x
 
 					double step = xDiff / fallOffWidth; // calculate step
 					if (step > 1) { // clamp to a high of 1
 						step = 1;
 					}
-
-					int stepInt = clampAndDither(step, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
+					steps[i] = step;
 				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
 			}
-
-			return true;
 		}
 
 	}
 
-	private final class HourglassThread extends RenderThread {
+	private final class HourglassKernel extends RenderKernel {
 
 		private final double renderMidpointX, renderMidpointY;
 		private final double sin, cos;
 		private final double pinch, roundness;
 		private final double denominator;
 
-		HourglassThread(int rowOffset, int rows, double renderMidpointX, double renderMidpointY, double sin, double cos, double zoom, double angle,
-				double pinch, double roundness, double denominator) {
-			super(rowOffset, rows);
+		HourglassKernel(double renderMidpointX, double renderMidpointY, double sin, double cos, double pinch, double roundness, double denominator) {
 			this.renderMidpointX = renderMidpointX;
 			this.renderMidpointY = renderMidpointY;
 			this.sin = sin;
@@ -1441,26 +3877,31 @@ public final class PeasyGradients {
 			this.pinch = pinch;
 			this.roundness = roundness;
 			this.denominator = denominator;
+			if (identifiesField()) {
+				identifyField(renderMidpointX, renderMidpointY, sin, cos, pinch, roundness, denominator);
+			}
 		}
 
 		@Override
-		public Boolean call() {
-
-			double newXpos;
-			double newYpos;
-
-			double yDist;
-			double xDist;
-
-			for (int y = rowOffset; y < rowOffset + rows; y++) {
-				pixel += renderOffsetX;
-				yDist = (renderMidpointY - y) * (renderMidpointY - y);
-				final double yTranslate = (y - renderMidpointY);
-				for (int x = 0; x < renderWidth; x++) {
-					xDist = (renderMidpointX - x) * (renderMidpointX - x);
+		int cost() {
+			return 2;
+		}
 
-					newXpos = (x - renderMidpointX) * cos - yTranslate * sin + renderMidpointX; // rotate x about midpoint
-					newYpos = yTranslate * cos + (x - renderMidpointX) * sin + renderMidpointY; // rotate y about midpoint
+		@Override
+		void computeSteps(int y, int x0, int x1, double[] steps) {
+			final double yDist = (renderMidpointY - y) * (renderMidpointY - y);
+			final double yTranslate = (y - renderMidpointY);
+			for (int anchor = x0 & -STEP_ANCHOR, i = 0; anchor < x1; anchor += STEP_ANCHOR) {
+				// (x, y) rotated about midpoint, relative to midpoint; stepped by (cos, sin) per pixel
+				double rotX = (anchor - renderMidpointX) * cos - yTranslate * sin;
+				double rotY = yTranslate * cos + (anchor - renderMidpointX) * sin;
+				int x = anchor;
+				for (; x < x0; x++) { // step to the first column
+					rotX += cos;
+					rotY += sin;
+				}
+				for (final int end = Math.min(anchor + STEP_ANCHOR, x1); x < end; x++, i++, rotX += cos, rotY += sin) {
+					final double xDist = (renderMidpointX - x) * (renderMidpointX - x);
 
 					/*
 					 * In the 2 lines below, we are effectively calculating dist = eDist/(cos(angle)
@@ -1470,18 +3911,12 @@ public final class PeasyGradients {
 					 * equations below.
 					 */
 
-					double z = (renderMidpointY - newYpos) / (renderMidpointX - newXpos); // atan2(y,x) === atan(y/x), so calc y/x here
+					double z = rotY / rotX; // atan2(y,x) === atan(y/x), so calc y/x here
 
 					// cos(atan(x)) === sqrt(z * z + 1)
-					double dist = Math.sqrt((yDist + xDist + pinch) * (z * z + roundness)) * denominator;
-
-					final int stepInt = clampAndDither(dist, x, y);
-					gradientPG.pixels[pixel++] = gradientCache[stepInt];
+					steps[i] = Math.sqrt((yDist + xDist + pinch) * (z * z + roundness)) * denominator;
 				}
-				pixel += gradientPG.width - (renderWidth + renderOffsetX);
 			}
-
-			return true;
 		}
 
 	}
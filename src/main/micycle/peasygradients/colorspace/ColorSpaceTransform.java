@@ -3,7 +3,13 @@ package micycle.peasygradients.colorspace;
 /**
  * Defines the interface for color space transformations, enabling conversion to
  * and from the RGB color space. Implementations should particularly focus on
- * optimizing the {@link #toRGB(double[])} method for efficient conversion.
+ * optimizing the {@link #toRGB(double[], double[])} method for efficient
+ * conversion.
+ * <p>
+ * Implementations hold no mutable state, so a single instance can be used by
+ * many threads at once. Methods that take an output array write into it rather
+ * than allocating: callers on hot paths should keep their own scratch arrays
+ * (one per thread), and reuse them for every conversion.
  * 
  * @author Michael Carleton
  */
@@ -22,6 +28,24 @@ public interface ColorSpaceTransform {
 	 */
 	public double[] toRGB(double[] color);
 
+	/**
+	 * Converts a color from the implementing color space to RGB, writing the result
+	 * into the given array rather than allocating a new one.
+	 * 
+	 * @param color an array representing the color in the implementing color space
+	 * @param out   array to write the RGB color into (at indices 0...2); may be
+	 *              the same array as <code>color</code>
+	 * @return the {@code out} array containing the RGB color
+	 * @see #toRGB(double[])
+	 */
+	public default double[] toRGB(double[] color, double[] out) {
+		final double[] RGB = toRGB(color);
+		out[0] = RGB[0];
+		out[1] = RGB[1];
+		out[2] = RGB[2];
+		return out;
+	}
+
 	/**
 	 * Converts an RGB color into the corresponding color in the target color space.
 	 * 
@@ -33,6 +57,26 @@ public interface ColorSpaceTransform {
 	 */
 	public double[] fromRGB(double[] RGB);
 
+	/**
+	 * Converts an RGB color into the corresponding color in the target color
+	 * space, writing the result into the given array.
+	 * <p>
+	 * Conversion from RGB happens only when a color stop's color is set (rather
+	 * than per sample), so implementations need not avoid allocation here.
+	 * 
+	 * @param RGB an array of three doubles representing the red, green, and blue
+	 *            components of the color, each normalized to the range [0, 1]
+	 * @param out array to write the color into; must be at least as long as the
+	 *            color space's color representation
+	 * @return the {@code out} array containing the color
+	 * @see #fromRGB(double[])
+	 */
+	public default double[] fromRGB(double[] RGB, double[] out) {
+		final double[] color = fromRGB(RGB);
+		System.arraycopy(color, 0, out, 0, color.length);
+		return out;
+	}
+
 	/**
 	 * Performs linear interpolation between two colors in an
 	 * implementation-independent manner. This method is designed to work across
@@ -51,7 +95,25 @@ public interface ColorSpaceTransform {
 	 * @return the {@code out} array containing the interpolated color
 	 */
 	public default double[] interpolateLinear(double[] a, double[] b, double step) {
-		double[] out = new double[3];
+		return interpolateLinear(a, b, step, new double[3]);
+	}
+
+	/**
+	 * Performs linear interpolation between two colors, writing the result into
+	 * the given array rather than allocating a new one.
+	 * 
+	 * @param a    an array of doubles representing the starting color in the color
+	 *             space
+	 * @param b    an array of doubles representing the ending color in the color
+	 *             space
+	 * @param step a double value between 0.0 and 1.0 representing the interpolation
+	 *             factor
+	 * @param out  array to write the interpolated color into; must be at least as
+	 *             long as the color space's color representation
+	 * @return the {@code out} array containing the interpolated color
+	 * @see #interpolateLinear(double[], double[], double)
+	 */
+	public default double[] interpolateLinear(double[] a, double[] b, double step, double[] out) {
 		out[0] = a[0] + step * (b[0] - a[0]);
 		out[1] = a[1] + step * (b[1] - a[1]);
 		out[2] = a[2] + step * (b[2] - a[2]);
@@ -34,7 +34,25 @@ final class DLAB implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(double[] din) {
-		return LAB.lab2rgb(din2lab(din));
+		return toRGB(din, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] din, double[] out) {
+		final double L = din[0];
+		final double a = din[1];
+		final double b = din[2];
+
+		final double hef = FastMath.atan2(b, a);
+		final double C = Math.sqrt(a * a + b * b);
+		final double G = (FastMath.exp(0.045 * C * kCH * kE) - 1.) / 0.045;
+		final double e = G * FastMath.cos(hef);
+		final double f = G * FastMath.sin(hef) / 0.7; // opt: "/ 0 .7"
+
+		final double Ln = (FastMath.exp((L * kE) / FAC_1) - 1.) / 0.0158;
+		final double an = e * COS_16DEG - f * SIN_16DEG;
+		final double bn = e * SIN_16DEG + f * COS_16DEG;
+		return LAB.lab2rgb(Ln, an, bn, out);
 	}
 
 	private static double[] lab2din(final double[] lab) {
@@ -58,21 +76,4 @@ final class DLAB implements ColorSpaceTransform {
 		}
 		return new double[] { L99, a99, b99 };
 	}
-
-	private static double[] din2lab(double[] DIN) {
-		final double L = DIN[0];
-		final double a = DIN[1];
-		final double b = DIN[2];
-
-		final double hef = FastMath.atan2(b, a);
-		final double C = Math.sqrt(a * a + b * b);
-		final double G = (FastMath.exp(0.045 * C * kCH * kE) - 1.) / 0.045;
-		final double e = G * FastMath.cos(hef);
-		final double f = G * FastMath.sin(hef) / 0.7; // opt: "/ 0 .7"
-
-		final double Ln = (FastMath.exp((L * kE) / FAC_1) - 1.) / 0.0158;
-		final double an = e * COS_16DEG - f * SIN_16DEG;
-		final double bn = e * SIN_16DEG + f * COS_16DEG;
-		return new double[] { Ln, an, bn };
-	}
 }
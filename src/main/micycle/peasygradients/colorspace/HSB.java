@@ -27,52 +27,59 @@ final class HSB implements ColorSpaceTransform {
 	 */
 	@Override
 	public double[] toRGB(double[] HSB) {
-		double[] RGB = new double[3];
+		return toRGB(HSB, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] HSB, double[] RGB) {
+		final double hue = HSB[0];
+		final double sat = HSB[1];
+		final double bri = HSB[2];
 
-		if (HSB[1] == 0.0) {
+		if (sat == 0.0) {
 			// 0.0 saturation is grayscale, so all values are equal.
-			RGB[0] = RGB[1] = RGB[2] = HSB[2];
+			RGB[0] = RGB[1] = RGB[2] = bri;
 		} else {
 
 			// Divide color wheel into 6 sectors.
 			// Scale up hue to 6, convert to sector index.
-			double h = HSB[0] * 6;
+			double h = hue * 6;
 			int sector = (int) h;
 
 			// Depending on the sector, three tints will
 			// be distributed among R, G, B channels.
-			double tint1 = HSB[2] * (1 - HSB[1]);
-			double tint2 = HSB[2] * (1 - HSB[1] * (h - sector));
-			double tint3 = HSB[2] * (1 - HSB[1] * (1 + sector - h));
+			double tint1 = bri * (1 - sat);
+			double tint2 = bri * (1 - sat * (h - sector));
+			double tint3 = bri * (1 - sat * (1 + sector - h));
 
 			switch (sector) {
 				case 1 :
 					RGB[0] = tint2;
-					RGB[1] = HSB[2];
+					RGB[1] = bri;
 					RGB[2] = tint1;
 					break;
 				case 2 :
 					RGB[0] = tint1;
-					RGB[1] = HSB[2];
+					RGB[1] = bri;
 					RGB[2] = tint3;
 					break;
 				case 3 :
 					RGB[0] = tint1;
 					RGB[1] = tint2;
-					RGB[2] = HSB[2];
+					RGB[2] = bri;
 					break;
 				case 4 :
 					RGB[0] = tint3;
 					RGB[1] = tint1;
-					RGB[2] = HSB[2];
+					RGB[2] = bri;
 					break;
 				case 5 :
-					RGB[0] = HSB[2];
+					RGB[0] = bri;
 					RGB[1] = tint1;
 					RGB[2] = tint2;
 					break;
 				default :
-					RGB[0] = HSB[2];
+					RGB[0] = bri;
 					RGB[1] = tint3;
 					RGB[2] = tint1;
 			}
@@ -138,6 +145,11 @@ final class HSB implements ColorSpaceTransform {
 	 */
 	@Override
 	public double[] interpolateLinear(double[] a, double[] b, double st) {
+		return interpolateLinear(a, b, st, new double[3]);
+	}
+
+	@Override
+	public double[] interpolateLinear(double[] a, double[] b, double st, double[] out) {
 
 		// Find difference in hues.
 		double huea = a[0];
@@ -153,7 +165,6 @@ final class HSB implements ColorSpaceTransform {
 
 		// The two hues may be outside of 0 .. 1 range,
 		// so modulate by 1.
-		double[] out = new double[3];
 		out[0] = (huea + st * (hueb - huea)) % 1;
 		out[1] = a[1] + st * (b[1] - a[1]);
 		out[2] = a[2] + st * (b[2] - a[2]);
@@ -34,7 +34,15 @@ final class HUNTER_LAB implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(double[] lab) {
-		return XYZ.xyz2rgb(hlab2xyz(lab));
+		return toRGB(lab, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] lab, double[] out) {
+		final double Y = lab[0] * lab[0] * 0.01;
+		final double X = ((lab[1] / ka * Math.sqrt(Y / illuminantY)) + (Y / illuminantY)) * illuminantX;
+		final double Z = -(lab[2] / kb * Math.sqrt(Y / illuminantY) - (Y / illuminantY)) * illuminantZ;
+		return XYZ.xyz2rgb(X, Y, Z, out);
 	}
 
 	public static double[] hlab2rgbQuick(double[] lab) {
@@ -58,12 +66,6 @@ final class HUNTER_LAB implements ColorSpaceTransform {
 		return new double[] { L, a, b };
 	}
 
-	private static double[] hlab2xyz(double[] lab) {
-		lab[0] = lab[0] * lab[0] * 0.01;
-		return new double[] { ((lab[1] / ka * Math.sqrt(lab[0] / illuminantY)) + (lab[0] / illuminantY)) * illuminantX, lab[0],
-				-(lab[2] / kb * Math.sqrt(lab[0] / illuminantY) - (lab[0] / illuminantY)) * illuminantZ };
-	}
-
 	/**
 	 * If illuminantY == 100, we can remove some divisions and the sqrt easily.
 	 * 
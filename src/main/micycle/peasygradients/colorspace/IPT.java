@@ -16,13 +16,16 @@ final class IPT implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(final double[] IPT) {
+		return toRGB(IPT, new double[3]);
+	}
 
-		// IPT -> L'M'S'
-		final double[] LMS = IPTtoLMSInverse(IPT);
+	@Override
+	public double[] toRGB(final double[] IPT, final double[] out) {
 
-		double L = LMS[0];
-		double M = LMS[1];
-		double S = LMS[2];
+		// IPT -> L'M'S'
+		double L = IPT[0] * 1 + IPT[1] * 0.0976 + IPT[2] * 0.2052;
+		double M = IPT[0] * 1 + IPT[1] * -0.1139 + IPT[2] * 0.1332;
+		double S = IPT[0] * 1 + IPT[1] * 0.0326 + IPT[2] * -0.6769;
 
 		// L'M'S' -> LMS
 		if (L < 0) {
@@ -42,8 +45,8 @@ final class IPT implements ColorSpaceTransform {
 			S = FastPow.fastPow(S, 2.3256);
 		}
 
-		// apply LMS->XYZ matrix
-		return XYZ.xyz2rgb(LMStoXYZInverse(new double[] { L, M, S }));
+		// apply LMS->XYZ matrix (see LMStoXYZInverse())
+		return XYZ.xyz2rgb(L * 1.8501 + M * -1.1383 + S * 0.2385, L * 0.3668 + M * 0.6439 + S * -0.0107, L * 0 + M * 0 + S * 1.0889, out);
 
 	}
 
@@ -58,17 +61,6 @@ final class IPT implements ColorSpaceTransform {
 				IPT[0] * 0 + IPT[1] * 0 + IPT[2] * 1.0889 };
 	}
 
-	/**
-	 * Reverses L'M'S' -> IPT (inline in fromRGB())
-	 * 
-	 * @param IPT
-	 * @return
-	 */
-	private static double[] IPTtoLMSInverse(double[] IPT) {
-		return new double[] { IPT[0] * 1 + IPT[1] * 0.0976 + IPT[2] * 0.2052, IPT[0] * 1 + IPT[1] * -0.1139 + IPT[2] * 0.1332,
-				IPT[0] * 1 + IPT[1] * 0.0326 + IPT[2] * -0.6769 };
-	}
-
 	@Override
 	public double[] fromRGB(final double[] RGB) {
 		final double[] LMS = XYZtoLMS(XYZ.rgb2xyz(RGB)); // convert XYZ to LMS (using IPT matrix)
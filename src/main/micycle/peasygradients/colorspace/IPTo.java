@@ -18,13 +18,16 @@ final class IPTo implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(final double[] IPT) {
+		return toRGB(IPT, new double[3]);
+	}
 
-		// IPT -> L'M'S'
-		final double[] LMS = IPTtoLMSInverse(IPT);
+	@Override
+	public double[] toRGB(final double[] IPT, final double[] out) {
 
-		double L = LMS[0];
-		double M = LMS[1];
-		double S = LMS[2];
+		// IPT -> L'M'S'
+		double L = IPT[0] * 0.99988723 + IPT[1] * 0.12783032 + IPT[2] * 0.12216833;
+		double M = IPT[0] * 0.99990673 + IPT[1] * -0.06722854 + IPT[2] * -0.0249936;
+		double S = IPT[0] * 0.99987776 + IPT[1] * 0.22247761 + IPT[2] * -0.73865223;
 
 		// L'M'S' -> LMS
 		final double power = 2.4563989; // = 1 / 0.4071
@@ -44,8 +47,14 @@ final class IPTo implements ColorSpaceTransform {
 			S = FastPow.fastPow(S, power);
 		}
 
-		// apply LMS->XYZ matrix
-		return XYZ.xyz2rgb(LMStoXYZInverse(new double[] { L, M, S }));
+		// apply LMS->XYZ matrix (see LMStoXYZInverse())
+		//@formatter:off
+		return XYZ.xyz2rgb(
+			L * 1.80808907 + M * -1.12559776 + S * 0.26790865,
+			L * 0.28725347 + M * 0.69759246 + S * 0.0151522,
+			L * -0.21879 + M * -0.0496069 + S * 1.35728432,
+			out);
+		//@formatter:on
 
 	}
 
@@ -65,22 +74,6 @@ final class IPTo implements ColorSpaceTransform {
 	  //@formatter:on
 	}
 
-	/**
-	 * Reverses L'M'S' -> IPT (inline in fromRGB())
-	 * 
-	 * @param IPT
-	 * @return
-	 */
-	private static double[] IPTtoLMSInverse(double[] IPT) {
-		//@formatter:off
-		return new double[] { 
-			IPT[0] * 0.99988723 + IPT[1] * 0.12783032 + IPT[2] * 0.12216833,
-			IPT[0] * 0.99990673 + IPT[1] * -0.06722854 + IPT[2] * -0.0249936,
-			IPT[0] * 0.99987776 + IPT[1] * 0.22247761 + IPT[2] * -0.73865223
-		};
-		//@formatter:on
-	}
-
 	@Override
 	public double[] fromRGB(final double[] RGB) {
 		final double[] LMS = XYZtoLMS(XYZ.rgb2xyz(RGB)); // convert XYZ to LMS (using IPT matrix)
@@ -99,17 +99,23 @@ final class ITP implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(double[] itp) {
+		return toRGB(itp, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] itp, double[] out) {
 		double I = itp[0] + 0.00860904 * itp[1] + 0.11102963 * itp[2];
 		double T = itp[0] + -0.00860904 * itp[1] + -0.11102963 * itp[2];
 		double P = itp[0] + 0.56003134 * itp[1] + -0.32062717 * itp[2];
 
-		double[] LMS = new double[] { EOTF(I), EOTF(T), EOTF(P) };
-
-		double R = 3.43660669 * LMS[0] + -2.50645212 * LMS[1] + 0.06984542 * LMS[2];
-		double G = -0.79132956 * LMS[0] + 1.98360045 * LMS[1] + -0.1922709 * LMS[2];
-		double B = -0.0259499 * LMS[0] + -0.09891371 * LMS[1] + 1.12486361 * LMS[2];
+		final double L = EOTF(I);
+		final double M = EOTF(T);
+		final double S = EOTF(P);
 
-		return new double[] { R, G, B };
+		out[0] = 3.43660669 * L + -2.50645212 * M + 0.06984542 * S;
+		out[1] = -0.79132956 * L + 1.98360045 * M + -0.1922709 * S;
+		out[2] = -0.0259499 * L + -0.09891371 * M + 1.12486361 * S;
+		return out;
 	}
 
 	public static double[] itp2rgbQuick(double[] itp) {
@@ -57,7 +57,28 @@ final class JAB implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(double[] jab) {
-		return XYZ.xyz2rgb(jab2xyz(jab));
+		return toRGB(jab, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] jab, double[] out) {
+		final double iab0 = (jab[0] + d0) / (1 + d - d * (jab[0] + d0));
+
+		final double LMSp0 = iab0 + 0.138605043271539 * jab[1] + 0.058047316156119 * jab[2];
+		final double LMSp1 = iab0 - 0.138605043271539 * jab[1] - 0.058047316156119 * jab[2];
+		final double LMSp2 = iab0 - 0.096019242026319 * jab[1] - 0.811891896056039 * jab[2];
+
+		final double LMS0 = FastMath.powQuick((c1 - FastMath.pow(LMSp0, pInverse)) / ((c3 * FastMath.pow(LMSp0, pInverse)) - c2), nInverse);
+		final double LMS1 = FastMath.powQuick((c1 - FastMath.pow(LMSp1, pInverse)) / ((c3 * FastMath.pow(LMSp1, pInverse)) - c2), nInverse);
+		final double LMS2 = FastMath.powQuick((c1 - FastMath.pow(LMSp2, pInverse)) / ((c3 * FastMath.pow(LMSp2, pInverse)) - c2), nInverse);
+
+		final double XYZp0 = 1.924226435787607 * LMS0 - 1.004792312595365 * LMS1 + 0.037651404030618 * LMS2;
+		final double XYZp1 = 0.350316762094999 * LMS0 + 0.726481193931655 * LMS1 - 0.065384422948085 * LMS2;
+		final double XYZp2 = -0.090982810982848 * LMS0 - 0.312728290523074 * LMS1 + 1.522766561305260 * LMS2;
+
+		final double x = (XYZp0 + (b - 1) * XYZp2) / b;
+		final double y = (XYZp1 + (g - 1) * x) / g;
+		return XYZ.xyz2rgb(x, y, XYZp2, out);
 	}
 
 	/**
@@ -98,33 +119,6 @@ final class JAB implements ColorSpaceTransform {
 		return jab;
 	}
 
-	private static double[] jab2xyz(double[] jab) {
-		double[] xyz = new double[3];
-
-		double iab0 = (jab[0] + d0) / (1 + d - d * (jab[0] + d0));
-
-		double[] LMSp = new double[3];
-		LMSp[0] = iab0 + 0.138605043271539 * jab[1] + 0.058047316156119 * jab[2];
-		LMSp[1] = iab0 - 0.138605043271539 * jab[1] - 0.058047316156119 * jab[2];
-		LMSp[2] = iab0 - 0.096019242026319 * jab[1] - 0.811891896056039 * jab[2];
-
-		double[] LMS = new double[3];
-		LMS[0] = FastMath.powQuick((c1 - FastMath.pow(LMSp[0], pInverse)) / ((c3 * FastMath.pow(LMSp[0], pInverse)) - c2), nInverse);
-		LMS[1] = FastMath.powQuick((c1 - FastMath.pow(LMSp[1], pInverse)) / ((c3 * FastMath.pow(LMSp[1], pInverse)) - c2), nInverse);
-		LMS[2] = FastMath.powQuick((c1 - FastMath.pow(LMSp[2], pInverse)) / ((c3 * FastMath.pow(LMSp[2], pInverse)) - c2), nInverse);
-
-		double[] XYZp = new double[3];
-		XYZp[0] = 1.924226435787607 * LMS[0] - 1.004792312595365 * LMS[1] + 0.037651404030618 * LMS[2];
-		XYZp[1] = 0.350316762094999 * LMS[0] + 0.726481193931655 * LMS[1] - 0.065384422948085 * LMS[2];
-		XYZp[2] = -0.090982810982848 * LMS[0] - 0.312728290523074 * LMS[1] + 1.522766561305260 * LMS[2];
-
-		xyz[0] = (XYZp[0] + (b - 1) * XYZp[2]) / b;
-		xyz[1] = (XYZp[1] + (g - 1) * xyz[0]) / g;
-		xyz[2] = XYZp[2];
-
-		return xyz;
-	}
-
 	/**
 	 * @deprecated
 	 */
@@ -31,12 +31,24 @@ final class K_MUNK implements ColorSpaceTransform {
     
     @Override
 	public double[] toRGB(double[] R) {
-	    double[] xyz = reflectanceToXYZ(R);
-	    double[] rgb = xyzToSRGB(xyz);
-	    rgb[0]/=255;
-	    rgb[1]/=255;
-	    rgb[2]/=255;
-	    return rgb;
+	    return toRGB(R, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] R, double[] out) {
+		// reflectance -> XYZ
+		final double x = dotProduct(R, CIE_CMF_X);
+		final double y = dotProduct(R, CIE_CMF_Y);
+		final double z = dotProduct(R, CIE_CMF_Z);
+
+		// XYZ -> linear RGB -> sRGB
+		final double r = XYZ_RGB[0][0] * x + XYZ_RGB[0][1] * y + XYZ_RGB[0][2] * z;
+		final double g = XYZ_RGB[1][0] * x + XYZ_RGB[1][1] * y + XYZ_RGB[1][2] * z;
+		final double b = XYZ_RGB[2][0] * x + XYZ_RGB[2][1] * y + XYZ_RGB[2][2] * z;
+		out[0] = Math.round(clamp(compand(r), 0, 1) * 255) / 255d;
+		out[1] = Math.round(clamp(compand(g), 0, 1) * 255) / 255d;
+		out[2] = Math.round(clamp(compand(b), 0, 1) * 255) / 255d;
+		return out;
 	}
 
 	@Override
@@ -53,13 +65,16 @@ final class K_MUNK implements ColorSpaceTransform {
 	
 	@Override
 	public double[] interpolateLinear(double[] R1, double[] R2, double t) {
+	    return interpolateLinear(R1, R2, t, new double[SIZE]);
+	}
+
+	@Override
+	public double[] interpolateLinear(double[] R1, double[] R2, double t, double[] R) {
 	    double l1 = dotProduct(R1, CIE_CMF_Y);
 	    double l2 = dotProduct(R2, CIE_CMF_Y);
 	
 	    t = linearToConcentration(l1, l2, t);
 	
-	    double[] R = new double[SIZE];
-	
 	    for (int i = 0; i < SIZE; i++) {
 	        double oneMinusR1 = 1 - R1[i];
 	        double oneMinusR2 = 1 - R2[i];
@@ -35,6 +35,11 @@ final class LAB implements ColorSpaceTransform {
 		return lab2rgb(lab);
 	}
 
+	@Override
+	public double[] toRGB(double[] lab, double[] out) {
+		return lab2rgb(lab[0], lab[1], lab[2], out);
+	}
+
 	/**
 	 * 
 	 * @param rgb [R,G,B] where values are 0...1.0
@@ -79,7 +84,42 @@ final class LAB implements ColorSpaceTransform {
 	 * @return [R,G,B] where values are 0...1.0
 	 */
 	static double[] lab2rgb(double[] lab) {
-		return XYZ.xyz2rgb(lab2xyz(lab));
+		return lab2rgb(lab[0], lab[1], lab[2], new double[3]);
+	}
+
+	/**
+	 * Converts LAB to RGB, writing into the given array rather than allocating
+	 * one.
+	 * 
+	 * @param L
+	 * @param A
+	 * @param B
+	 * @param out array to write [R,G,B] into
+	 * @return out
+	 */
+	static double[] lab2rgb(final double L, final double A, final double B, final double[] out) {
+		final double ta = (L + 16d) / 116d;
+		double x = ta + A / 500d;
+		double y;
+		double z = ta - B / 200d;
+
+		if (x > 0.206897) {
+			x = x * x * x;
+		} else {
+			x = 0.12841854934 * x - 0.01771290335;
+		}
+		if (ta > 0.206897) {
+			y = ta * ta * ta;
+		} else {
+			y = 0.12841854934 * ta - 0.01771290335;
+		}
+		if (z > 0.206897) {
+			z = z * z * z;
+		} else {
+			z = 0.12841854934 * z - 0.01771290335;
+		}
+
+		return XYZ.xyz2rgb(x * illuminantX, y * illuminantY, z * illuminantZ, out);
 	}
 
 	public static double[] lab2rgbQuick(double[] lab) {
@@ -41,7 +41,29 @@ final class LUV implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(double[] luv) {
-		return XYZ.xyz2rgb(luv2xyz(luv));
+		return toRGB(luv, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] luv, double[] out) {
+		if (luv[0] == 0) {
+			return XYZ.xyz2rgb(0, 0, 0, out);
+		}
+
+		double varU = luv[1] / (13 * luv[0]) + refU;
+		double varV = luv[2] / (13 * luv[0]) + refV;
+
+		double Y = (luv[0] + 16) * 0.008621;
+		if (Y > 0.206893034) {
+			Y = Y * Y * Y;
+		} else {
+			Y = (Y - 0.13793) * 0.12842;
+		}
+
+		final double X = 0 - (9 * Y * varU) / ((varU - 4) * varV - varU * varV);
+		final double Z = (9 * Y - (15 * varV * Y) - (varV * X)) / (3 * varV);
+
+		return XYZ.xyz2rgb(X, Y, Z, out);
 	}
 
 	private static double[] luv2rgbQuick(double luv[]) {
@@ -68,28 +90,6 @@ final class LUV implements ColorSpaceTransform {
 		return new double[] { L, U, V };
 	}
 
-	private static double[] luv2xyz(double[] tuple) {
-
-		if (tuple[0] == 0) {
-			return new double[] { 0, 0, 0 };
-		}
-
-		double varU = tuple[1] / (13 * tuple[0]) + refU;
-		double varV = tuple[2] / (13 * tuple[0]) + refV;
-
-		double Y = (tuple[0] + 16) * 0.008621;
-		if (Y > 0.206893034) {
-			Y = Y * Y * Y;
-		} else {
-			Y = (Y - 0.13793) * 0.12842;
-		}
-
-		final double X = 0 - (9 * Y * varU) / ((varU - 4) * varV - varU * varV);
-		final double Z = (9 * Y - (15 * varV * Y) - (varV * X)) / (3 * varV);
-
-		return new double[] { X, Y, Z };
-	}
-
 	/**
 	 * @deprecated
 	 */
@@ -29,6 +29,11 @@ final class OKLAB implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(final double[] color) {
+		return toRGB(color, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(final double[] color, final double[] RGB) {
 		double l_ = color[0] + 0.3963377774 * color[1] + 0.2158037573 * color[2];
 		double m_ = color[0] - 0.1055613458 * color[1] - 0.0638541728 * color[2];
 		double s_ = color[0] - 0.0894841775 * color[1] - 1.2914855480 * color[2];
@@ -37,9 +42,10 @@ final class OKLAB implements ColorSpaceTransform {
 		double m = m_ * m_ * m_;
 		double s = s_ * s_ * s_;
 
-		double[] RGB = new double[] { +4.0767416621 * l - 3.3077115913 * m + 0.2309699292 * s,
-				-1.2684380046 * l + 2.6097574011 * m - 0.3413193965 * s, -0.0041960863 * l - 0.7034186147 * m + 1.7076147010 * s, };
-		
+		RGB[0] = +4.0767416621 * l - 3.3077115913 * m + 0.2309699292 * s;
+		RGB[1] = -1.2684380046 * l + 2.6097574011 * m - 0.3413193965 * s;
+		RGB[2] = -0.0041960863 * l - 0.7034186147 * m + 1.7076147010 * s;
+
 //		RGB[0] = f(RGB[0]);
 //		RGB[1] = f(RGB[1]);
 //		RGB[2] = f(RGB[2]);
@@ -22,6 +22,14 @@ final class RGB implements ColorSpaceTransform {
 		return rgb;
 	}
 
+	@Override
+	public double[] toRGB(double[] rgb, double[] out) {
+		out[0] = rgb[0];
+		out[1] = rgb[1];
+		out[2] = rgb[2];
+		return out;
+	}
+
 	/*
 	 * Functionless, but satisfies interface
 	 */
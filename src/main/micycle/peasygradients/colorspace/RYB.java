@@ -53,6 +53,11 @@ final class RYB implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(double[] ryb) {
+		return toRGB(ryb, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] ryb, double[] out) {
 		double r = ryb[0];
 		double y = ryb[1];
 		double b = ryb[2];
@@ -79,11 +84,10 @@ final class RYB implements ColorSpaceTransform {
 
 		// add blackness
 		final double w = Functions.min(1 - ryb[0], 1 - ryb[1], 1 - ryb[2]);
-		R += w;
-		G += w;
-		B += w;
-
-		return new double[] { R, G, B };
+		out[0] = R + w;
+		out[1] = G + w;
+		out[2] = B + w;
+		return out;
 	}
 
 }
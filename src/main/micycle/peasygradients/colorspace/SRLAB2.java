@@ -23,6 +23,11 @@ class SRLAB2 implements ColorSpaceTransform {
 
 	@Override
 	public double[] toRGB(double[] color) {
+		return toRGB(color, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(double[] color, double[] out) {
 
 		double lightness = color[0];
 		double a = color[1];
@@ -70,7 +75,10 @@ class SRLAB2 implements ColorSpaceTransform {
 			blue = 1.055 * FastMath.powQuick(bl, 1.0 / 2.4) - 0.055;
 		}
 
-		return new double[] { red, blue, green }; // NOTE order swapped
+		out[0] = red; // NOTE order swapped
+		out[1] = blue;
+		out[2] = green;
+		return out;
 	}
 
 	@Override
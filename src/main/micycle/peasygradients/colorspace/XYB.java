@@ -92,6 +92,14 @@ final class XYB implements ColorSpaceTransform {
 	 */
 	@Override
 	public double[] toRGB(double[] XYB) {
+		return toRGB(XYB, new double[3]);
+	}
+
+	/**
+	 * Returns normalised sRGB [0...1]
+	 */
+	@Override
+	public double[] toRGB(double[] XYB, double[] out) {
 
 		final double opsin_x = XYB[0];
 		final double opsin_y = XYB[1];
@@ -126,7 +134,10 @@ final class XYB implements ColorSpaceTransform {
 		linear_g = mulAdd(kDefaultInverseOpsinAbsorbanceMatrix[5], mixed_b, linear_g);
 		linear_b = mulAdd(kDefaultInverseOpsinAbsorbanceMatrix[8], mixed_b, linear_b);
 
-		return new double[] { linearToGamma(linear_r), linearToGamma(linear_g), linearToGamma(linear_b) };
+		out[0] = linearToGamma(linear_r);
+		out[1] = linearToGamma(linear_g);
+		out[2] = linearToGamma(linear_b);
+		return out;
 	}
 
 	/**
@@ -36,6 +36,11 @@ final class XYZ implements ColorSpaceTransform {
 	 */
 	@Override
 	public double[] toRGB(final double[] xyz) {
+		return toRGB(xyz, new double[3]);
+	}
+
+	@Override
+	public double[] toRGB(final double[] xyz, final double[] out) {
 
 		double r, g, b;
 
@@ -63,7 +68,10 @@ final class XYZ implements ColorSpaceTransform {
 			b *= 12.92;
 		}
 
-		return new double[] { r, g, b };
+		out[0] = r;
+		out[1] = g;
+		out[2] = b;
+		return out;
 	}
 
 	/**
@@ -193,13 +201,27 @@ final class XYZ implements ColorSpaceTransform {
 	 * @return
 	 */
 	static double[] xyz2rgb(double[] xyz) {
+		return xyz2rgb(xyz[0], xyz[1], xyz[2], new double[3]);
+	}
+
+	/**
+	 * Static for use by other colorspace classes. Writes into the given array,
+	 * rather than allocating one.
+	 * 
+	 * @param X
+	 * @param Y
+	 * @param Z
+	 * @param out array to write [R,G,B] into
+	 * @return out
+	 */
+	static double[] xyz2rgb(final double X, final double Y, final double Z, final double[] out) {
 
 		/**
 		 * Unnormalise values from XYZ100 to XYZ1
 		 */
-		double x = xyz[0] / 100;
-		double y = xyz[1] / 100;
-		double z = xyz[2] / 100;
+		double x = X / 100;
+		double y = Y / 100;
+		double z = Z / 100;
 
 		double r, g, b;
 
@@ -224,6 +246,9 @@ final class XYZ implements ColorSpaceTransform {
 			b *= 12.92;
 		}
 
-		return new double[] { r, g, b };
+		out[0] = r;
+		out[1] = g;
+		out[2] = b;
+		return out;
 	}
 }
@@ -0,0 +1,214 @@
+package micycle.peasygradients.gradient;
+
+import java.util.List;
+
+import micycle.peasygradients.colorspace.ColorSpace;
+import micycle.peasygradients.colorspace.ColorSpaceTransform;
+import micycle.peasygradients.utilities.ColorUtils;
+import micycle.peasygradients.utilities.Interpolation;
+
+/**
+ * An immutable snapshot of a {@link Gradient}, created by
+ * {@link Gradient#compile()}.
+ * <p>
+ * Unlike a Gradient (whose sampling methods update internal search state), a
+ * compiled gradient holds no mutable state, so a single instance can be sampled
+ * by any number of threads concurrently without locking or copying. It is
+ * unaffected by later modifications to the gradient it was compiled from.
+ * <p>
+ * Sampling a compiled gradient gives the same colors as sampling the source
+ * gradient at the time of compilation.
+ *
+ * @author Michael Carleton
+ *
+ */
+public final class CompiledGradient {
+
+	/**
+	 * Per-thread buffer that interpolated colors are written into; grown as
+	 * needed to fit the color representation of whichever color space is in use.
+	 */
+	private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[3]);
+
+	private final double[] positions; // stop positions, ascending
+	private final int[] alphas; // stop alphas
+	private final double[][] colors; // stop colors, in the color space
+	private final int[] rgbColors; // stop colors, as packed RGB
+	/**
+	 * Inverse of the (negated) width of each segment; element k is for the segment
+	 * ending at stop k.
+	 */
+	private final double[] segmentDenominators;
+	private final int channels; // length of color representation
+	private final boolean fixedPoint; // whether to interpolate packed RGB colors directly
+
+	private final double offset;
+	private final ColorSpace colorSpace;
+	private final ColorSpaceTransform colorSpaceInstance;
+	private final Interpolation interpolationMode;
+
+	CompiledGradient(List<ColorStop> colorStops, double offset, ColorSpace colorSpace, ColorSpaceTransform colorSpaceInstance,
+			Interpolation interpolationMode) {
+		final int n = colorStops.size();
+		positions = new double[n];
+		alphas = new int[n];
+		colors = new double[n][];
+		rgbColors = new int[n];
+		segmentDenominators = new double[n];
+		for (int i = 0; i < n; i++) {
+			final ColorStop stop = colorStops.get(i);
+			positions[i] = stop.position;
+			alphas[i] = stop.alpha;
+			colors[i] = stop.colorOut.clone();
+			rgbColors[i] = stop.clr;
+			segmentDenominators[i] = i == 0 ? 1 : 1 / (colorStops.get(i - 1).position - stop.position);
+		}
+		channels = colors[0].length;
+
+		this.offset = offset;
+		this.colorSpace = colorSpace;
+		this.colorSpaceInstance = colorSpaceInstance;
+		this.interpolationMode = interpolationMode;
+		fixedPoint = colorSpaceInstance == ColorSpace.RGB.getColorSpace();
+	}
+
+	/**
+	 * Evaluates the ARGB (Processing) color value of the gradient at the given step
+	 * through its 1D color axis.
+	 *
+	 * @param position a linear position expressed as a decimal between 0 and 1.
+	 *                 Numbers outside the range of 0...1 will wrap back into the
+	 *                 gradient
+	 * @return ARGB integer for Processing pixel array.
+	 * @see Gradient#getColor(double)
+	 */
+	public int getColor(double position) {
+		position = wrap(position);
+		return sample(position, segment(position, 0), fixedPoint ? null : scratch());
+	}
+
+	/**
+	 * Fills an array with colors sampled at equidistant positions along this
+	 * gradient, from its start (at index 0) to its end (at the last index).
+	 *
+	 * @param out array to fill with ARGB color integers
+	 * @see Gradient#fillColors(int[])
+	 */
+	public void fillColors(int[] out) {
+		fillColors(out, 0, out.length);
+	}
+
+	/**
+	 * Fills a range of an array with colors sampled at equidistant positions along
+	 * this gradient, where index 0 of the array corresponds to the start of the
+	 * gradient and the last index to its end.
+	 *
+	 * @param out  array to fill with ARGB color integers
+	 * @param from first index to fill (inclusive)
+	 * @param to   last index to fill (exclusive)
+	 * @see Gradient#fillColors(int[], int, int)
+	 */
+	public void fillColors(int[] out, int from, int to) {
+		final double[] scratch = fixedPoint ? null : scratch();
+		int segment = 0;
+		for (int i = from; i < to; i++) {
+			final double position = wrap((double) i / (out.length - 1));
+			segment = segment(position, segment); // walks forward through segments
+			out[i] = sample(position, segment, scratch);
+		}
+	}
+
+	/**
+	 * Evaluates the colors of the gradient at each of the given positions.
+	 *
+	 * @param positions positions along the gradient
+	 * @param out       array to write ARGB color integers into, at the same indices
+	 *                  as their positions; at least as long as positions
+	 * @see Gradient#sample(double[], int[])
+	 */
+	public void sample(double[] positions, int[] out) {
+		final double[] scratch = fixedPoint ? null : scratch();
+		int segment = 0;
+		for (int i = 0; i < positions.length; i++) {
+			final double position = wrap(positions[i]);
+			segment = segment(position, segment);
+			out[i] = sample(position, segment, scratch);
+		}
+	}
+
+	/**
+	 * @return the color space that this gradient interpolates colors in
+	 */
+	public ColorSpace getColorSpace() {
+		return colorSpace;
+	}
+
+	/**
+	 * @return the interpolation mode that this gradient uses between color stops
+	 */
+	public Interpolation getInterpolationMode() {
+		return interpolationMode;
+	}
+
+	/**
+	 * Applies the offset to a position and wraps it into 0...1, as
+	 * {@link Gradient#getColor(double)} does.
+	 */
+	private double wrap(double position) {
+		position += offset;
+		if (position < 0) { // (if animation offset negative)
+			position += 1; // equivalent to floormod function
+		}
+		if (position > 1) { // 1 % 1 == 0, which we want to avoid
+			position %= 1;
+		}
+		return position;
+	}
+
+	/**
+	 * Finds the index of the first stop whose position is at or beyond the given
+	 * position (or the last stop, if there is none), searching from a hint.
+	 */
+	private int segment(final double position, int hint) {
+		final int last = positions.length - 1;
+		while (hint < last && position > positions[hint]) {
+			hint++;
+		}
+		while (hint > 0 && position <= positions[hint - 1]) {
+			hint--;
+		}
+		return hint;
+	}
+
+	private int sample(final double position, final int stop, final double[] scratch) {
+		final int currStop, prevStop;
+		final double smoothStep;
+		if (stop == 0 || position > positions[stop]) { // before first stop, or after last stop
+			currStop = prevStop = stop;
+			smoothStep = 0;
+		} else {
+			currStop = stop;
+			prevStop = stop - 1;
+			smoothStep = Gradient.functStep(interpolationMode, (position - positions[currStop]) * segmentDenominators[currStop]);
+		}
+
+		int alpha = (int) Math.floor((alphas[prevStop] + (position * (alphas[currStop] - alphas[prevStop]))) + 0.5d);
+		if (fixedPoint) {
+			return ColorUtils.lerpRGB255(rgbColors[currStop], rgbColors[prevStop], (int) (smoothStep * 65536 + 0.5), alpha);
+		}
+
+		colorSpaceInstance.interpolateLinear(colors[currStop], colors[prevStop], smoothStep, scratch);
+
+		return ColorUtils.RGB1ToRGBA255Clamp(colorSpaceInstance.toRGB(scratch, scratch), alpha); // converts in place
+	}
+
+	private double[] scratch() {
+		double[] scratch = SCRATCH.get();
+		if (scratch.length < channels) {
+			scratch = new double[channels];
+			SCRATCH.set(scratch);
+		}
+		return scratch;
+	}
+
+}
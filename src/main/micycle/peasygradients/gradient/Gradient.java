@@ -39,14 +39,19 @@ import net.jafama.FastMath;
  */
 public final class Gradient {
 
+	private static final ColorSpaceTransform RGB_SPACE = ColorSpace.RGB.getColorSpace();
+
 	// TODO export as JSON / load from JSON
 
 	private List<ColorStop> colorStops = new ArrayList<>(); // TODO add get method
 
-	private double[] interpolatedcolorOUT = new double[4]; // define once here
+	private double[] interpolatedcolorOUT = new double[4]; // scratch buffer, reused by every sample
 
 	private double offset = 0; // animation color offset 0...1
 
+	private long version = 0; // incremented by every modification
+	private long offsetVersion = 0; // incremented by every modification to offset (only)
+
 	private int lastCurrStopIndex;
 	private ColorStop currStop, prevStop;
 	private double denom;
@@ -130,10 +135,141 @@ public final class Gradient {
 	 * @return ARGB integer for Processing pixel array.
 	 */
 	public int getColor(double position) {
+		return sample(position, offset, interpolationMode, colorSpaceInstance);
+	}
+
+	/**
+	 * Fills an array with colors sampled at equidistant positions along this
+	 * gradient, from its start (at index 0) to its end (at the last index). This
+	 * is equivalent to, but faster than, calling
+	 * <code>getColor(i / (out.length - 1d))</code> for every index <code>i</code>.
+	 * 
+	 * @param out array to fill with ARGB color integers
+	 * @see #fillColors(int[], int, int)
+	 */
+	public void fillColors(int[] out) {
+		fillColors(out, 0, out.length);
+	}
+
+	/**
+	 * Fills a range of an array with colors sampled at equidistant positions along
+	 * this gradient, where index 0 of the array corresponds to the start of the
+	 * gradient and the last index to its end. This is equivalent to, but faster
+	 * than, calling <code>getColor(i / (out.length - 1d))</code> for every index
+	 * <code>i</code> in the range.
+	 * 
+	 * @param out  array to fill with ARGB color integers
+	 * @param from first index to fill (inclusive)
+	 * @param to   last index to fill (exclusive)
+	 */
+	public void fillColors(int[] out, int from, int to) {
+		fillColors(out, from, to, offset);
+	}
 
-		// TODO a version which writes to PeasyGradients int[] array (i.e. does all at
-		// once)
+	/**
+	 * Fills an array with colors sampled at equidistant positions along this
+	 * gradient, as {@link #fillColors(int[])} does, but as if the gradient had the
+	 * given offset rather than its own.
+	 * <p>
+	 * Since changing the offset cyclically shifts the gradient's colors, colors
+	 * sampled at an offset of 0 can be rotated to give the colors at any other
+	 * offset, without sampling again.
+	 * 
+	 * @param out    array to fill with ARGB color integers
+	 * @param offset offset to sample the gradient at
+	 * @see #setOffset(double)
+	 */
+	public void fillColors(int[] out, double offset) {
+		fillColors(out, 0, out.length, offset);
+	}
 
+	/**
+	 * Fills a range of an array with colors sampled at equidistant positions along
+	 * this gradient, at the given offset. Since the positions increase (other than
+	 * where the offset wraps them back to the start), this walks forward through
+	 * the color stops, looking up the stops and denominator of each segment once,
+	 * rather than searching for them at every position as {@link #getColor(double)}
+	 * does.
+	 */
+	private void fillColors(int[] out, int from, int to, final double offset) {
+		final Interpolation mode = interpolationMode;
+		final ColorSpaceTransform space = colorSpaceInstance;
+		final int last = colorStops.size() - 1;
+		if (space != RGB_SPACE && interpolatedcolorOUT.length != colorStops.get(0).colorOut.length) {
+			interpolatedcolorOUT = new double[colorStops.get(0).colorOut.length]; // color space has changed
+		}
+
+		int stop = -1; // index of the stop that ends the current segment; -1 until found
+		ColorStop segmentStart = null, segmentEnd = null;
+		double denominator = 0;
+		double previous = Double.POSITIVE_INFINITY;
+		for (int i = from; i < to; i++) {
+			double position = (double) i / (out.length - 1) + offset;
+			if (position < 0) { // (if animation offset negative)
+				position += 1;
+			}
+			if (position > 1) { // 1 % 1 == 0, which we want to avoid
+				position %= 1;
+			}
+			if (position < previous) { // first position, or wrapped back to the start
+				stop = -1;
+			}
+			previous = position;
+
+			if (stop < 0 || (stop < last && position > segmentEnd.position)) { // entered another segment
+				stop = Math.max(stop, 0);
+				while (stop < last && position > colorStops.get(stop).position) {
+					stop++;
+				}
+				segmentEnd = colorStops.get(stop);
+				segmentStart = stop == 0 ? segmentEnd : colorStops.get(stop - 1);
+				denominator = stop == 0 ? 0 : 1 / (segmentStart.position - segmentEnd.position);
+			}
+
+			final ColorStop prevStop, currStop = segmentEnd;
+			final double smoothStep;
+			if (stop == 0 || position > segmentEnd.position) { // before the first stop, or after the last
+				prevStop = segmentEnd;
+				smoothStep = 0;
+			} else {
+				prevStop = segmentStart;
+				smoothStep = functStep(mode, (position - currStop.position) * denominator);
+			}
+
+			final int alpha = (int) Math.floor((prevStop.alpha + (position * (currStop.alpha - prevStop.alpha))) + 0.5d);
+			if (space == RGB_SPACE) {
+				out[i] = ColorUtils.lerpRGB255(currStop.clr, prevStop.clr, (int) (smoothStep * 65536 + 0.5), alpha);
+			} else {
+				space.interpolateLinear(currStop.colorOut, prevStop.colorOut, smoothStep, interpolatedcolorOUT);
+				out[i] = ColorUtils.RGB1ToRGBA255Clamp(space.toRGB(interpolatedcolorOUT, interpolatedcolorOUT), alpha);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the colors of the gradient at each of the given positions. This is
+	 * equivalent to, but faster than, calling {@link #getColor(double)} for each
+	 * position (particularly when positions are sorted).
+	 * 
+	 * @param positions positions along the gradient
+	 * @param out       array to write ARGB color integers into, at the same indices
+	 *                  as their positions; at least as long as positions
+	 */
+	public void sample(double[] positions, int[] out) {
+		final Interpolation mode = interpolationMode;
+		final ColorSpaceTransform space = colorSpaceInstance;
+		for (int i = 0; i < positions.length; i++) {
+			out[i] = sample(positions[i], offset, mode, space);
+		}
+	}
+
+	/**
+	 * Samples the gradient's color at a position, using the given (loop-invariant)
+	 * offset, interpolation mode and color space. Continues the search for the
+	 * color stops adjacent to the position from the stops of the previous sample,
+	 * so is fastest when consecutive positions are close.
+	 */
+	private int sample(double position, final double offset, final Interpolation mode, final ColorSpaceTransform space) {
 		position += offset;
 		if (position < 0) { // (if animation offset negative)
 			position += 1; // equivalent to floormod function
@@ -201,26 +337,38 @@ public final class Gradient {
 		 * and not globally. TODO apply easing function to the raw position, not the
 		 * color-stop-dependent position?
 		 */
-		double smoothStep = functStep((position - currStop.position) * denom); // apply interpolation function between colorstops
+		double smoothStep = functStep(mode, (position - currStop.position) * denom); // apply interpolation function between colorstops
 //		double smoothStep = (position - currStop.position) * denom; // applicable when applying interpolation function globally
 
-		/*
-		 * Calculate the interpolated color in the given colorspace by using the two
-		 * colorstops adjacent to the position, and the (eased) step between the two
-		 * colorstops as the weighting.
-		 */
-		interpolatedcolorOUT = colorSpaceInstance.interpolateLinear(currStop.colorOut, prevStop.colorOut, smoothStep);
 		/*
 		 * Treat alpha separately (to simplify colorspace classes)
 		 */
 		int alpha = (int) Math.floor((prevStop.alpha + (position * (currStop.alpha - prevStop.alpha))) + 0.5d); // TODO sometimes
 																												// 254?
 
+		if (space == RGB_SPACE) {
+			/*
+			 * Interpolating in RGB needs no color space conversion, so interpolate the
+			 * stops' packed colors directly, using a fixed-point weight.
+			 */
+			return ColorUtils.lerpRGB255(currStop.clr, prevStop.clr, (int) (smoothStep * 65536 + 0.5), alpha);
+		}
+
+		/*
+		 * Calculate the interpolated color in the given colorspace by using the two
+		 * colorstops adjacent to the position, and the (eased) step between the two
+		 * colorstops as the weighting.
+		 */
+		if (interpolatedcolorOUT.length != currStop.colorOut.length) {
+			interpolatedcolorOUT = new double[currStop.colorOut.length]; // color space has changed
+		}
+		space.interpolateLinear(currStop.colorOut, prevStop.colorOut, smoothStep, interpolatedcolorOUT);
+
 		/*
 		 * Finally convert the given colorspace value to sARGB int to eventually write
 		 * to Processing's pixels[] array
 		 */
-		return ColorUtils.RGB1ToRGBA255Clamp(colorSpaceInstance.toRGB(interpolatedcolorOUT), alpha);
+		return ColorUtils.RGB1ToRGBA255Clamp(space.toRGB(interpolatedcolorOUT, interpolatedcolorOUT), alpha); // converts in place
 	}
 
 	/**
@@ -232,6 +380,7 @@ public final class Gradient {
 	public void setStopColor(int stopIndex, int col) {
 		if (stopIndex > -1 && stopIndex < colorStops.size()) {
 			colorStops.get(stopIndex).setColor(col);
+			version++;
 		} else {
 			System.err.println("Color stop index out of bounds.");
 		}
@@ -255,6 +404,7 @@ public final class Gradient {
 			}
 			colorStops.get(index).setPosition(position);
 			Collections.sort(colorStops);
+			version++;
 		} else {
 			System.err.println("Color stop index out of bounds.");
 		}
@@ -267,6 +417,7 @@ public final class Gradient {
 	public void reverse() {
 		colorStops.forEach(s -> s.position = 1 - s.position);
 		Collections.sort(colorStops);
+		version++;
 	}
 
 	/**
@@ -281,6 +432,8 @@ public final class Gradient {
 	public void animate(double amt) {
 		offset += amt;
 		offset %= 1;
+		version++;
+		offsetVersion++;
 	}
 
 	/**
@@ -291,6 +444,16 @@ public final class Gradient {
 	 */
 	public void setOffset(double offset) {
 		this.offset = offset;
+		version++;
+		offsetVersion++;
+	}
+
+	/**
+	 * @return the current offset of all color stops
+	 * @see #setOffset(double)
+	 */
+	public double getOffset() {
+		return offset;
 	}
 
 	/**
@@ -302,6 +465,7 @@ public final class Gradient {
 	 */
 	public void mutatecolor(double amt) {
 		colorStops.forEach(c -> c.mutate(amt));
+		version++;
 	}
 
 	/**
@@ -350,6 +514,7 @@ public final class Gradient {
 			for (ColorStop colorStop : colorStops) {
 				colorStop.position *= scaleFactor; // scale up remaining stop positions
 			}
+			version++;
 		} else {
 			System.err.println("This gradient has only 2 colors. No more colors can be removed from this gradient.");
 		}
@@ -393,6 +558,7 @@ public final class Gradient {
 		colorStops.add(colorStop);
 		Collections.sort(colorStops); // sort color stops by position
 		colorStop.setColorSpace(colorSpace);
+		version++;
 	}
 
 	/**
@@ -406,18 +572,21 @@ public final class Gradient {
 		this.colorSpace = colorSpace;
 		colorSpaceInstance = colorSpace.getColorSpace();
 		colorStops.forEach(c -> c.setColorSpace(colorSpace));
+		version++;
 	}
 
 	public void nextColSpace() {
 		colorSpace = colorSpace.next();
 		colorSpaceInstance = colorSpace.getColorSpace();
 		colorStops.forEach(c -> c.setColorSpace(colorSpace));
+		version++;
 	}
 
 	public void prevColSpace() {
 		colorSpace = colorSpace.prev();
 		colorSpaceInstance = colorSpace.getColorSpace();
 		colorStops.forEach(c -> c.setColorSpace(colorSpace));
+		version++;
 	}
 
 	/**
@@ -429,24 +598,73 @@ public final class Gradient {
 	 */
 	public void setInterpolationMode(Interpolation interpolation) {
 		this.interpolationMode = interpolation;
+		version++;
 	}
 
 	public void nextInterpolationMode() {
 		interpolationMode = interpolationMode.next();
+		version++;
 	}
 
 	public void prevInterpolationMode() {
 		interpolationMode = interpolationMode.prev();
+		version++;
 	}
 
 	boolean remove(ColorStop colorStop) {
+		version++;
 		return colorStops.remove(colorStop);
 	}
 
 	ColorStop remove(int i) {
+		version++;
 		return colorStops.remove(i);
 	}
 
+	/**
+	 * Returns the modification version of this gradient: a counter that changes
+	 * whenever the gradient is modified through its methods (changes to its color
+	 * stops, color space, interpolation mode or offset). Renderers use it to tell
+	 * whether colors they previously sampled from the gradient are still valid.
+	 * <p>
+	 * Note that directly assigning the public {@link #colorSpace} or
+	 * {@link #interpolationMode} fields does not change the version.
+	 * 
+	 * @return modification version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the modification version of this gradient, ignoring changes to its
+	 * offset: this changes only when the gradient's colors (at an offset of 0) are
+	 * modified. Renderers use it to tell whether colors they sampled from the
+	 * gradient can be reused by shifting them to its new offset.
+	 * 
+	 * @return modification version, ignoring offset changes
+	 * @see #getVersion()
+	 * @see #getOffset()
+	 */
+	public long getVersionIgnoringOffset() {
+		return version - offsetVersion;
+	}
+
+	/**
+	 * Compiles this gradient into an immutable snapshot that can be sampled by many
+	 * threads concurrently. A gradient itself is not thread-safe, since sampling
+	 * updates its internal search state.
+	 * <p>
+	 * The snapshot captures the gradient's current color stops, color space,
+	 * interpolation mode and offset; later modifications to this gradient do not
+	 * affect it (compile again to pick them up).
+	 * 
+	 * @return a compiled snapshot of this gradient
+	 */
+	public CompiledGradient compile() {
+		return new CompiledGradient(colorStops, offset, colorSpace, colorSpaceInstance, interpolationMode);
+	}
+
 	/**
 	 * Returns a randomised gradient (comprised using random colors and random
 	 * positions).
@@ -555,11 +773,12 @@ public final class Gradient {
 	 * Gradient's current interpolation function. Allows gradient renderer to easily
 	 * change how the gradient is smoothed.
 	 * 
+	 * @param mode interpolation function
 	 * @param step 0...1
 	 * @return the eased/transformed step (0...1)
 	 */
-	private double functStep(final double step) {
-		switch (interpolationMode) {
+	static double functStep(final Interpolation mode, final double step) {
+		switch (mode) {
 			case LINEAR:
 				return step;
 			case IDENTITY:
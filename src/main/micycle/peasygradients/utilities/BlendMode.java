@@ -0,0 +1,107 @@
+package micycle.peasygradients.utilities;
+
+/**
+ * Modes by which the colors of a gradient layer are blended with the colors of
+ * the layers beneath it.
+ * <p>
+ * Each mode combines a backdrop channel (the layers beneath) and a source
+ * channel (the layer) into a blended channel, which then replaces the backdrop
+ * in proportion to the source's alpha and the layer's opacity.
+ *
+ * @author Michael Carleton
+ *
+ */
+public enum BlendMode {
+
+	/** The source replaces the backdrop. */
+	NORMAL,
+	/** Multiplies the backdrop by the source; always darkens. */
+	MULTIPLY,
+	/** Inverse of multiplying the inverses of backdrop and source; always lightens. */
+	SCREEN,
+	/**
+	 * Multiplies dark backdrop channels and screens light ones, increasing
+	 * contrast.
+	 */
+	OVERLAY,
+	/** Adds the source to the backdrop, clamping at white. */
+	ADD,
+	/** Subtracts the source from the backdrop, clamping at black. */
+	SUBTRACT,
+	/** Absolute difference between the backdrop and source. */
+	DIFFERENCE,
+	/** The darker of the backdrop and source, per channel. */
+	DARKEST,
+	/** The lighter of the backdrop and source, per channel. */
+	LIGHTEST;
+
+	/**
+	 * Blends a source color onto a backdrop color.
+	 *
+	 * @param backdrop ARGB backdrop color
+	 * @param source   ARGB source color
+	 * @param opacity  opacity of the source, in [0, 255]; multiplied by the
+	 *                 source's own alpha
+	 * @return ARGB blended color
+	 */
+	public int composite(int backdrop, int source, int opacity) {
+		final int alpha = ((source >>> 24) * opacity + 127) / 255;
+		if (alpha == 0) {
+			return backdrop;
+		}
+		final int backdropAlpha = backdrop >>> 24;
+		if (backdropAlpha == 255) { // opaque backdrop: lerp from backdrop to blended color
+			int out = 0xFF000000;
+			for (int shift = 0; shift < 24; shift += 8) {
+				final int b = (backdrop >> shift) & 0xff;
+				final int blended = blend(b, (source >> shift) & 0xff);
+				out |= (b + ((blended - b) * alpha + (blended >= b ? 127 : -127)) / 255) << shift;
+			}
+			return out;
+		}
+
+		/*
+		 * Translucent backdrop: the blended color is mixed with the source color in
+		 * proportion to the backdrop's alpha, and the result is composited over the
+		 * backdrop (each weighted by its alpha) then divided by the output alpha.
+		 */
+		final int backdropWeight = backdropAlpha * (255 - alpha); // (scaled by 255)
+		final int outAlpha255 = alpha * 255 + backdropWeight; // output alpha, scaled by 255
+		int out = ((outAlpha255 + 127) / 255) << 24;
+		for (int shift = 0; shift < 24; shift += 8) {
+			final int b = (backdrop >> shift) & 0xff;
+			final int s = (source >> shift) & 0xff;
+			final int mixed = (s * (255 - backdropAlpha) + blend(b, s) * backdropAlpha + 127) / 255;
+			out |= ((mixed * alpha * 255 + b * backdropWeight + outAlpha255 / 2) / outAlpha255) << shift;
+		}
+		return out;
+	}
+
+	/**
+	 * Blends a source channel onto a backdrop channel, each in [0, 255].
+	 */
+	private int blend(int b, int s) {
+		switch (this) {
+			case MULTIPLY:
+				return (b * s + 127) / 255;
+			case SCREEN:
+				return b + s - (b * s + 127) / 255;
+			case OVERLAY:
+				return b < 128 ? (2 * b * s + 127) / 255 : 255 - (2 * (255 - b) * (255 - s) + 127) / 255;
+			case ADD:
+				return Math.min(255, b + s);
+			case SUBTRACT:
+				return Math.max(0, b - s);
+			case DIFFERENCE:
+				return Math.abs(b - s);
+			case DARKEST:
+				return Math.min(b, s);
+			case LIGHTEST:
+				return Math.max(b, s);
+			case NORMAL:
+			default:
+				return s;
+		}
+	}
+
+}
@@ -0,0 +1,225 @@
+package micycle.peasygradients.utilities;
+
+import java.util.Arrays;
+import java.util.List;
+
+import processing.core.PImage;
+import processing.core.PVector;
+
+/**
+ * A shape that gradients are clipped to, so that only pixels within the shape
+ * are rendered (and pixels outside it are left untouched).
+ * <p>
+ * A shape is converted to spans: for each row of pixels, the runs of columns
+ * covered by the shape. A pixel is covered if its center lies inside the
+ * shape. Coordinates are pixel coordinates of the render target (where 0,0 is
+ * its top-left corner), regardless of the render region.
+ *
+ * @author Michael Carleton
+ *
+ */
+public abstract class ClipShape {
+
+	private static final int[] NO_SPANS = new int[0];
+
+	/**
+	 * Creates a circular clip shape.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle, in pixels
+	 * @return the clip shape
+	 */
+	public static ClipShape circle(PVector center, double radius) {
+		final double cx = center.x, cy = center.y;
+		return new ClipShape() {
+			@Override
+			public int[] spans(int y) {
+				final double dy = y + 0.5 - cy;
+				if (Math.abs(dy) >= radius) {
+					return NO_SPANS;
+				}
+				final double halfWidth = Math.sqrt(radius * radius - dy * dy);
+				return span(cx - halfWidth, cx + halfWidth);
+			}
+		};
+	}
+
+	/**
+	 * Creates a rectangular clip shape having rounded corners.
+	 *
+	 * @param x      x coordinate of the rectangle's top-left corner
+	 * @param y      y coordinate of the rectangle's top-left corner
+	 * @param width  width of the rectangle
+	 * @param height height of the rectangle
+	 * @param radius radius of the corners; constrained to half the rectangle's
+	 *               shorter side. 0 gives square corners
+	 * @return the clip shape
+	 */
+	public static ClipShape roundedRect(double x, double y, double width, double height, double radius) {
+		final double r = Math.max(0, Math.min(radius, Math.min(width, height) / 2));
+		return new ClipShape() {
+			@Override
+			public int[] spans(int row) {
+				final double py = row + 0.5;
+				if (py <= y || py >= y + height) {
+					return NO_SPANS;
+				}
+				double inset = 0; // of the left and right edges, within a corner's rows
+				final double dy = Math.max(y + r - py, py - (y + height - r));
+				if (dy > 0) {
+					inset = r - Math.sqrt(r * r - dy * dy);
+				}
+				return span(x + inset, x + width - inset);
+			}
+		};
+	}
+
+	/**
+	 * Creates a polygonal clip shape. Self-intersecting polygons are filled
+	 * according to the even-odd rule.
+	 *
+	 * @param vertices vertices of the polygon, in order (the polygon is closed
+	 *                 implicitly)
+	 * @return the clip shape
+	 */
+	public static ClipShape polygon(List<PVector> vertices) {
+		final int n = vertices.size();
+		final double[] xs = new double[n];
+		final double[] ys = new double[n];
+		for (int i = 0; i < n; i++) {
+			xs[i] = vertices.get(i).x;
+			ys[i] = vertices.get(i).y;
+		}
+		return new ClipShape() {
+			@Override
+			public int[] spans(int y) {
+				final double py = y + 0.5;
+				double[] crossings = new double[4];
+				int count = 0;
+				for (int i = 0, j = n - 1; i < n; j = i++) {
+					if ((ys[i] <= py) != (ys[j] <= py)) { // edge crosses the row's center line
+						if (count == crossings.length) {
+							crossings = Arrays.copyOf(crossings, count * 2);
+						}
+						crossings[count++] = xs[i] + (py - ys[i]) / (ys[j] - ys[i]) * (xs[j] - xs[i]);
+					}
+				}
+				Arrays.sort(crossings, 0, count);
+				final int[] spans = new int[count];
+				int length = 0;
+				for (int i = 0; i < count; i += 2) {
+					final int start = (int) Math.floor(crossings[i] - 0.5) + 1;
+					final int end = (int) Math.ceil(crossings[i + 1] - 0.5);
+					if (end > start) {
+						if (length > 0 && spans[length - 1] >= start) { // touches the previous span
+							spans[length - 1] = end;
+						} else {
+							spans[length++] = start;
+							spans[length++] = end;
+						}
+					}
+				}
+				return length == spans.length ? spans : Arrays.copyOf(spans, length);
+			}
+		};
+	}
+
+	/**
+	 * Creates a clip shape from an 8-bit mask image, placed at the top-left corner
+	 * of the render target. Pixels are covered where the mask is non-zero, and the
+	 * mask's value is applied to covered pixels as coverage (multiplying their
+	 * alpha), giving soft edges.
+	 * <p>
+	 * As with {@link PImage#mask(PImage)}, the mask's value is taken from the blue
+	 * channel of each pixel (so a grayscale or <code>ALPHA</code> format image can
+	 * be used).
+	 *
+	 * @param mask mask image; pixels of the render target beyond the mask are not
+	 *             covered
+	 * @return the clip shape
+	 */
+	public static ClipShape mask(PImage mask) {
+		mask.loadPixels();
+		final int width = mask.width, height = mask.height;
+		final int[] values = mask.pixels.clone();
+		return new ClipShape() {
+			@Override
+			public int[] spans(int y) {
+				if (y < 0 || y >= height) {
+					return NO_SPANS;
+				}
+				int[] spans = new int[4];
+				int length = 0;
+				final int row = y * width;
+				int x = 0;
+				while (x < width) {
+					while (x < width && (values[row + x] & 0xff) == 0) {
+						x++;
+					}
+					if (x == width) {
+						break;
+					}
+					final int start = x;
+					while (x < width && (values[row + x] & 0xff) != 0) {
+						x++;
+					}
+					if (length == spans.length) {
+						spans = Arrays.copyOf(spans, length * 2);
+					}
+					spans[length++] = start;
+					spans[length++] = x;
+				}
+				return Arrays.copyOf(spans, length);
+			}
+
+			@Override
+			public boolean hasPartialCoverage() {
+				return true;
+			}
+
+			@Override
+			public int coverage(int x, int y) {
+				return values[y * width + x] & 0xff;
+			}
+		};
+	}
+
+	/**
+	 * Computes the spans of a row of pixels: the runs of columns covered by this
+	 * shape.
+	 *
+	 * @param y row of the render target
+	 * @return pairs of column indices: the first column (inclusive) and last
+	 *         column (exclusive) of each span, in ascending order and not
+	 *         overlapping. Columns may lie beyond the render target
+	 */
+	public abstract int[] spans(int y);
+
+	/**
+	 * @return whether some covered pixels are only partially covered, so must have
+	 *         their {@link #coverage(int, int) coverage} applied
+	 */
+	public boolean hasPartialCoverage() {
+		return false;
+	}
+
+	/**
+	 * @param x column of a covered pixel of the render target
+	 * @param y row of a covered pixel of the render target
+	 * @return coverage of the pixel, in [1, 255]; 255 is fully covered
+	 */
+	public int coverage(int x, int y) {
+		return 255;
+	}
+
+	/**
+	 * @return the single span of pixels whose centers lie strictly between the
+	 *         given x coordinates
+	 */
+	private static int[] span(double left, double right) {
+		final int start = (int) Math.floor(left - 0.5) + 1;
+		final int end = (int) Math.ceil(right - 0.5);
+		return end > start ? new int[] { start, end } : NO_SPANS;
+	}
+
+}
@@ -162,6 +162,54 @@ public final class ColorUtils {
 		return alpha << 24 | r << 16 | g << 8 | b;
 	}
 
+	/**
+	 * Linearly interpolates between the RGB channels of two 32-bit colors using
+	 * 16.16 fixed-point arithmetic, clamping each channel output between 0 and
+	 * 255. This is equivalent to (but faster than) interpolating the colors as
+	 * normalised RGB doubles and composing the result with
+	 * {@link #RGB1ToRGBA255Clamp(double[], int)}, to within 1 level per channel.
+	 * 
+	 * @param a      The first color (alpha is ignored).
+	 * @param b      The second color (alpha is ignored).
+	 * @param weight The weight of the second color in 16.16 fixed point, where
+	 *               65536 (<code>1 << 16</code>) corresponds to 1.0.
+	 * @param alpha  The alpha component of the result, in the range 0...255.
+	 * @return The composed ARGB color as an integer.
+	 */
+	public static int lerpRGB255(int a, int b, int weight, int alpha) {
+		weight = weight < -(1 << 22) ? -(1 << 22) : (weight > 1 << 22 ? 1 << 22 : weight); // (so channel products can't overflow)
+		final int aR = a >> 16 & 0xff, aG = a >> 8 & 0xff, aB = a & 0xff;
+		int r = aR + (((b >> 16 & 0xff) - aR) * weight + 0x8000 >> 16); // + 0x8000 to round
+		r = (r & ~(r >> 31) | 255 - r >> 31) & 255;
+		int g = aG + (((b >> 8 & 0xff) - aG) * weight + 0x8000 >> 16);
+		g = (g & ~(g >> 31) | 255 - g >> 31) & 255;
+		int bl = aB + (((b & 0xff) - aB) * weight + 0x8000 >> 16);
+		bl = (bl & ~(bl >> 31) | 255 - bl >> 31) & 255;
+		return alpha << 24 | r << 16 | g << 8 | bl;
+	}
+
+	/**
+	 * Composites a color over a color having premultiplied alpha (Porter-Duff
+	 * source-over), using integer arithmetic.
+	 *
+	 * @param destination The premultiplied ARGB color being composited onto.
+	 * @param source      The (straight, non-premultiplied) ARGB color to composite.
+	 * @return The composited premultiplied ARGB color as an integer.
+	 */
+	public static int sourceOverPremultiplied(int destination, int source) {
+		final int alpha = source >>> 24;
+		if (alpha == 255) {
+			return source;
+		}
+		final int inverse = 255 - alpha;
+		int out = (alpha + ((destination >>> 24) * inverse + 127) / 255) << 24;
+		for (int shift = 0; shift < 24; shift += 8) {
+			final int premultiplied = ((source >> shift & 0xff) * alpha + 127) / 255;
+			out |= (premultiplied + ((destination >> shift & 0xff) * inverse + 127) / 255) << shift;
+		}
+		return out;
+	}
+
 	private static int composeclrClampSimple(double[] in, int alpha) {
 		int r = (int) Math.min(Math.max(in[0] * 255, 0), 255);
 		int g = (int) Math.min(Math.max(in[1] * 255, 0), 255);
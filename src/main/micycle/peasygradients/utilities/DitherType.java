@@ -0,0 +1,226 @@
+package micycle.peasygradients.utilities;
+
+import java.util.Random;
+
+/**
+ * Dither patterns, used to break up color-banding in rendered gradients.
+ * <p>
+ * Each pattern is a precomputed square texture (with power-of-2 dimensions)
+ * that is tiled across the render region.
+ *
+ * @author Michael Carleton
+ *
+ */
+public enum DitherType {
+
+	/**
+	 * Jorge Jimenez's interleaved gradient noise (as used in Call of Duty:
+	 * Advanced Warfare). Cheap to compute and visually noisy, with a slight
+	 * diagonal structure.
+	 */
+	// http://www.iryoku.com/next-generation-post-processing-in-call-of-duty-advanced-warfare
+	INTERLEAVED_GRADIENT_NOISE(64),
+	/**
+	 * Ordered dithering using an 8x8 Bayer matrix. Gives a regular cross-hatched
+	 * pattern, suited to retro or posterised looks.
+	 */
+	BAYER_8X8(8),
+	/**
+	 * 64x64 blue noise, generated using Ulichney's void-and-cluster method. Blue
+	 * noise has no low-frequency content, so is the least visible of the patterns.
+	 */
+	BLUE_NOISE(64);
+
+	private final int size;
+	private volatile double[] texture; // lazily built
+
+	private DitherType(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * @return width (and height) of this pattern's texture; a power of 2
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Samples this pattern's texture, which tiles infinitely in both directions.
+	 *
+	 * @param x
+	 * @param y
+	 * @return dither value in the range [-1, 1], having a mean of ~0
+	 */
+	public double sample(int x, int y) {
+		final int mask = size - 1;
+		return texture()[(y & mask) * size + (x & mask)];
+	}
+
+	private double[] texture() {
+		double[] t = texture;
+		if (t == null) {
+			synchronized (this) {
+				t = texture;
+				if (t == null) {
+					t = build();
+					texture = t;
+				}
+			}
+		}
+		return t;
+	}
+
+	private double[] build() {
+		final double[] t = new double[size * size];
+		switch (this) {
+			case INTERLEAVED_GRADIENT_NOISE:
+				for (int y = 0; y < size; y++) {
+					for (int x = 0; x < size; x++) {
+						final double v = 52.9829189 * (0.06711056 * x + 0.00583715 * y);
+						t[y * size + x] = (v - Math.floor(v)) * 2 - 1; // fractional part, in range [-1,1]
+					}
+				}
+				break;
+			case BAYER_8X8:
+				for (int y = 0; y < size; y++) {
+					for (int x = 0; x < size; x++) {
+						t[y * size + x] = rankToValue(bayerRank(x, y, size), size * size);
+					}
+				}
+				break;
+			case BLUE_NOISE:
+				final int[] ranks = voidAndCluster(size, 1.5, 0x5EED);
+				for (int i = 0; i < ranks.length; i++) {
+					t[i] = rankToValue(ranks[i], ranks.length);
+				}
+				break;
+		}
+		return t;
+	}
+
+	/**
+	 * Maps a threshold rank in [0, n) to a (centered) value in [-1, 1].
+	 */
+	private static double rankToValue(int rank, int n) {
+		return (rank + 0.5) / n * 2 - 1;
+	}
+
+	/**
+	 * Computes the rank of an element of the (recursively defined) Bayer matrix of
+	 * the given size.
+	 */
+	private static int bayerRank(int x, int y, int size) {
+		int rank = 0;
+		for (int bit = size >> 1, scale = 1; bit > 0; bit >>= 1, scale <<= 2) {
+			final int xBit = (x & bit) != 0 ? 1 : 0;
+			final int yBit = (y & bit) != 0 ? 1 : 0;
+			rank += scale * (2 * (xBit ^ yBit) + yBit); // 2x2 Bayer: [[0,2],[3,1]]
+		}
+		return rank;
+	}
+
+	/**
+	 * Generates a blue noise threshold (rank) matrix using the void-and-cluster
+	 * method (Ulichney, 1993). The texture tiles seamlessly: distances wrap
+	 * toroidally.
+	 *
+	 * @param size  width and height of the matrix
+	 * @param sigma standard deviation of the gaussian energy filter
+	 * @param seed  random seed for the initial binary pattern
+	 * @return matrix of ranks, a permutation of [0, size*size)
+	 */
+	private static int[] voidAndCluster(final int size, final double sigma, final long seed) {
+		final int n = size * size;
+
+		// gaussian energy contribution between two pixels, by toroidal offset
+		final double[] filter = new double[n];
+		for (int dy = 0; dy < size; dy++) {
+			for (int dx = 0; dx < size; dx++) {
+				final int wx = Math.min(dx, size - dx);
+				final int wy = Math.min(dy, size - dy);
+				filter[dy * size + dx] = Math.exp(-(wx * wx + wy * wy) / (2 * sigma * sigma));
+			}
+		}
+
+		// initial binary pattern: ~10% of pixels set at random
+		final boolean[] pattern = new boolean[n];
+		final double[] energy = new double[n];
+		final Random random = new Random(seed);
+		int ones = 0;
+		while (ones < n / 10) {
+			final int i = random.nextInt(n);
+			if (!pattern[i]) {
+				pattern[i] = true;
+				addEnergy(energy, filter, size, i, 1);
+				ones++;
+			}
+		}
+
+		// redistribute initial pattern: move tightest cluster into largest void until
+		// stable
+		while (true) {
+			final int cluster = extremum(energy, pattern, true, true);
+			pattern[cluster] = false;
+			addEnergy(energy, filter, size, cluster, -1);
+			final int voidIndex = extremum(energy, pattern, false, false);
+			pattern[voidIndex] = true;
+			addEnergy(energy, filter, size, voidIndex, 1);
+			if (voidIndex == cluster) {
+				break;
+			}
+		}
+
+		final int[] ranks = new int[n];
+		final boolean[] prototype = pattern.clone();
+		final double[] prototypeEnergy = energy.clone();
+
+		// phase 1: rank the initial pattern's pixels, removing tightest clusters first
+		for (int rank = ones - 1; rank >= 0; rank--) {
+			final int cluster = extremum(energy, pattern, true, true);
+			pattern[cluster] = false;
+			addEnergy(energy, filter, size, cluster, -1);
+			ranks[cluster] = rank;
+		}
+
+		// phases 2 & 3: rank the remaining pixels, filling the largest voids first
+		System.arraycopy(prototype, 0, pattern, 0, n);
+		System.arraycopy(prototypeEnergy, 0, energy, 0, n);
+		for (int rank = ones; rank < n; rank++) {
+			final int voidIndex = extremum(energy, pattern, false, false);
+			pattern[voidIndex] = true;
+			addEnergy(energy, filter, size, voidIndex, 1);
+			ranks[voidIndex] = rank;
+		}
+
+		return ranks;
+	}
+
+	/**
+	 * Adds (or subtracts) the energy of a point at index i to every pixel.
+	 */
+	private static void addEnergy(double[] energy, double[] filter, int size, int i, int sign) {
+		final int px = i % size, py = i / size;
+		for (int y = 0; y < size; y++) {
+			final int fy = ((y - py + size) % size) * size;
+			for (int x = 0; x < size; x++) {
+				energy[y * size + x] += sign * filter[fy + (x - px + size) % size];
+			}
+		}
+	}
+
+	/**
+	 * Finds the index of the pixel with the max (or min) energy, among pixels
+	 * whose pattern value equals <code>set</code>.
+	 */
+	private static int extremum(double[] energy, boolean[] pattern, boolean set, boolean max) {
+		int best = -1;
+		for (int i = 0; i < energy.length; i++) {
+			if (pattern[i] == set && (best < 0 || (max ? energy[i] > energy[best] : energy[i] < energy[best]))) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+}
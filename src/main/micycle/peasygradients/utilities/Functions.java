@@ -34,6 +34,28 @@ public final class Functions {
 
 	private static final Random random = ThreadLocalRandom.current();
 
+	/**
+	 * Resolution (entries per quadrant) of the diamond-angle correction table.
+	 * Linear interpolation between entries gives a maximum angle error of ~3e-7
+	 * radians.
+	 */
+	private static final int DIAMOND_ANGLE_RESOLUTION = 1024;
+	/**
+	 * Maps diamond angle (scaled by {@link #DIAMOND_ANGLE_RESOLUTION}) to true
+	 * angle, in turns. Has one extra entry so that interpolation never reads past
+	 * the end.
+	 */
+	private static final double[] DIAMOND_ANGLE_TURNS = new double[4 * DIAMOND_ANGLE_RESOLUTION + 2];
+
+	static {
+		for (int i = 0; i < DIAMOND_ANGLE_TURNS.length; i++) {
+			final double d = (double) i / DIAMOND_ANGLE_RESOLUTION;
+			final int quadrant = (int) d;
+			final double p = d - quadrant; // y/(x+y) within the quadrant
+			DIAMOND_ANGLE_TURNS[i] = (quadrant + Math.atan2(p, 1 - p) / (Math.PI / 2)) / 4;
+		}
+	}
+
 	/**
 	 * Project a given 2D pixel coordinate (x, y) onto a position (0...1) of a
 	 * imaginary 1D spine of a linear gradient given by its start and end points.
@@ -441,6 +463,49 @@ public final class Functions {
 		return y < 0f ? atan - PI : atan;
 	}
 
+	/**
+	 * Computes the "diamond angle" of a vector: a pseudo-angle in the range [0, 4)
+	 * that increases monotonically with the true angle (as given by atan2(y,x),
+	 * taken in the range [0, 2PI)), where each quadrant spans a range of 1. It
+	 * costs a single division.
+	 * 
+	 * @param y
+	 * @param x
+	 * @return pseudo-angle in the range [0, 4); 0 for the zero vector
+	 * @see #fastAtan2Turns(double, double)
+	 */
+	public static double diamondAngle(final double y, final double x) {
+		if (y >= 0) {
+			if (x > 0) {
+				return y / (x + y);
+			}
+			return y == 0 && x == 0 ? 0 : 1 - x / (y - x);
+		} else {
+			if (x < 0) {
+				return 2 - y / (-x - y);
+			}
+			return 3 + x / (x - y);
+		}
+	}
+
+	/**
+	 * atan2 approximation, expressed in turns (i.e. atan2(y,x) / 2PI) in the range
+	 * [0, 1). Computes the vector's {@link #diamondAngle(double, double) diamond
+	 * angle}, then maps it to a true angle through an interpolated correction
+	 * table. Maximum absolute error of ~5e-8 turns (~3e-7 radians).
+	 * 
+	 * @param y
+	 * @param x
+	 * @return angle of the vector (x, y) in turns, in the range [0, 1)
+	 */
+	public static double fastAtan2Turns(final double y, final double x) {
+		final double d = diamondAngle(y, x) * DIAMOND_ANGLE_RESOLUTION;
+		final int i = (int) d;
+		final double a = DIAMOND_ANGLE_TURNS[i];
+		final double turns = a + (DIAMOND_ANGLE_TURNS[i + 1] - a) * (d - i);
+		return turns < 1 ? turns : 0; // rounding of d just below 4 may produce 1
+	}
+
 	/**
 	 * Linearly interpolates between two angles in radians. Takes into account that
 	 * angles wrap at two pi and always takes the direction with the smallest delta
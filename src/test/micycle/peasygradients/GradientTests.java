@@ -8,6 +8,7 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.EnumSource.Mode;
 
 import micycle.peasygradients.colorspace.ColorSpace;
+import micycle.peasygradients.gradient.CompiledGradient;
 import micycle.peasygradients.gradient.Gradient;
 import micycle.peasygradients.utilities.ColorUtils;
 import micycle.peasygradients.utilities.Interpolation;
@@ -39,6 +40,114 @@ class GradientTests {
 		}
 	}
 
+	@ParameterizedTest
+	@EnumSource(ColorSpace.class)
+	void testBatchSamplingMatchesGetColor(ColorSpace colorSpace) {
+		final int[] colors = { WHITE, ColorUtils.RGB255ToRGB255(200, 30, 60), GREY, ColorUtils.RGB255ToRGB255(10, 90, 250), BLACK };
+		final double[] positions = new double[500];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = (i * 0.618034) % 1.3 - 0.15; // unsorted, some out of range
+		}
+
+		for (Interpolation interpolation : Interpolation.values()) {
+			Gradient a = new Gradient(colors);
+			Gradient b = new Gradient(colors);
+			for (Gradient g : new Gradient[] { a, b }) {
+				g.setColorSpace(colorSpace);
+				g.setInterpolationMode(interpolation);
+				g.setOffset(0.1);
+			}
+
+			final int[] expected = new int[257];
+			for (int i = 0; i < expected.length; i++) {
+				expected[i] = a.getColor((double) i / (expected.length - 1));
+			}
+			final int[] actual = new int[expected.length];
+			b.fillColors(actual);
+			assertArrayEquals(expected, actual, interpolation.name());
+
+			final int[] sampled = new int[positions.length];
+			b.sample(positions, sampled);
+			for (int i = 0; i < positions.length; i++) {
+				assertEquals(a.getColor(positions[i]), sampled[i], interpolation.name());
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(ColorSpace.class)
+	void testCompiledGradientMatchesGradient(ColorSpace colorSpace) throws InterruptedException {
+		final int[] colors = { WHITE, ColorUtils.RGB255ToRGB255(200, 30, 60), GREY, ColorUtils.RGB255ToRGB255(10, 90, 250), BLACK };
+		final double[] positions = new double[500];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = (i * 0.618034) % 1.3 - 0.15; // unsorted, some out of range
+		}
+
+		for (Interpolation interpolation : Interpolation.values()) {
+			Gradient gradient = new Gradient(colors);
+			gradient.setColorSpace(colorSpace);
+			gradient.setInterpolationMode(interpolation);
+			gradient.setOffset(0.1);
+			final CompiledGradient compiled = gradient.compile();
+
+			final int[] expected = new int[257];
+			gradient.fillColors(expected);
+			final int[] expectedSampled = new int[positions.length];
+			gradient.sample(positions, expectedSampled);
+
+			gradient.setStopColor(1, BLACK); // compiled snapshot should be unaffected
+			gradient.setOffset(0.3);
+
+			final int[] actual = new int[expected.length];
+			compiled.fillColors(actual);
+			assertArrayEquals(expected, actual, interpolation.name());
+			final int[] sampled = new int[positions.length];
+			compiled.sample(positions, sampled);
+			assertArrayEquals(expectedSampled, sampled, interpolation.name());
+			for (int i = 0; i < positions.length; i++) {
+				assertEquals(expectedSampled[i], compiled.getColor(positions[i]), interpolation.name());
+			}
+
+			// sample concurrently from one instance
+			final int[][] results = new int[4][expected.length];
+			final Thread[] threads = new Thread[results.length];
+			for (int t = 0; t < threads.length; t++) {
+				final int[] result = results[t];
+				threads[t] = new Thread(() -> {
+					for (int i = 0; i < result.length; i++) {
+						result[i] = compiled.getColor((double) i / (result.length - 1));
+					}
+				});
+				threads[t].start();
+			}
+			for (int t = 0; t < threads.length; t++) {
+				threads[t].join();
+				assertArrayEquals(expected, results[t], interpolation.name());
+			}
+		}
+	}
+
+	@Test
+	void testVersionChangesOnModification() {
+		Gradient gradient = new Gradient(WHITE, GREY, BLACK);
+		final Runnable[] modifications = { () -> gradient.setStopColor(1, WHITE), () -> gradient.setStopPosition(1, 0.3),
+				() -> gradient.reverse(), () -> gradient.animate(0.1), () -> gradient.setOffset(0.5), () -> gradient.mutatecolor(10),
+				() -> gradient.primeAnimation(), () -> gradient.removeLast(), () -> gradient.add(GREY, 0.5),
+				() -> gradient.setColorSpace(ColorSpace.RGB), () -> gradient.nextColSpace(), () -> gradient.prevColSpace(),
+				() -> gradient.setInterpolationMode(Interpolation.LINEAR), () -> gradient.nextInterpolationMode(),
+				() -> gradient.prevInterpolationMode() };
+		for (Runnable modification : modifications) {
+			final long version = gradient.getVersion();
+			modification.run();
+			assertNotEquals(version, gradient.getVersion());
+		}
+
+		final long version = gradient.getVersion();
+		gradient.getColor(0.5);
+		gradient.toString();
+		assertEquals(version, gradient.getVersion());
+	}
+
 	@ParameterizedTest
 	@EnumSource(value = ColorSpace.class, mode = Mode.EXCLUDE, names = { "JAB", "IPT", "IPTo" }) // NOTE exlude failing
 	void testBiGradientIsMonotonic(ColorSpace colorSpace) {
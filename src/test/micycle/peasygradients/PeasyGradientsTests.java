@@ -1,19 +1,40 @@
 package micycle.peasygradients;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import micycle.peasygradients.colorspace.ColorSpace;
 import micycle.peasygradients.gradient.Gradient;
 import micycle.peasygradients.gradient.Palette;
+import micycle.peasygradients.utilities.BlendMode;
+import micycle.peasygradients.utilities.ClipShape;
 import micycle.peasygradients.utilities.ColorUtils;
+import micycle.peasygradients.utilities.DitherType;
 import micycle.peasygradients.utilities.FastNoiseLite.FractalType;
 import micycle.peasygradients.utilities.FastNoiseLite.NoiseType;
+import micycle.peasygradients.utilities.Interpolation;
 import processing.core.PConstants;
 import processing.core.PImage;
 import processing.core.PVector;
@@ -44,7 +65,7 @@ class PeasyGradientsTests {
 		int regionWidth = 500;
 		int regionHeight = 500;
 		pg.setRenderTarget(i, offsetX, offsetY, regionWidth, regionHeight); // offSetX, offSetY, width, height
-		pg.setRenderStrips(4);
+		pg.setTileArea(64 * 64);
 
 		PVector v = new PVector(500, 500);
 		Gradient g = new Gradient(BLACK, BLACK);
@@ -177,6 +198,32 @@ class PeasyGradientsTests {
 
 	}
 
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, Math.PI / 2, Math.PI, 3 * Math.PI / 2 })
+	void testAxisAlignedSubregion(double angle) {
+		final int w = 120, h = 90;
+		final int offX = 10, offY = 20, rw = 70, rh = 50;
+		PImage g = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients();
+		pg.setRenderTarget(g, offX, offY, rw, rh);
+		pg.posterise(6);
+		pg.linearGradient(new Gradient(Palette.tetradic()), angle);
+
+		final boolean horizontal = Math.abs(Math.sin(angle)) < 0.5;
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				final int pixel = g.pixels[y * w + x];
+				if (x < offX || x >= offX + rw || y < offY || y >= offY + rh) {
+					assertEquals(0, pixel, "Drew outside region at x=" + x + ", y=" + y);
+				} else if (horizontal) {
+					assertEquals(g.pixels[offY * w + x], pixel, "Row differs at x=" + x + ", y=" + y);
+				} else {
+					assertEquals(g.pixels[y * w + offX], pixel, "Column differs at x=" + x + ", y=" + y);
+				}
+			}
+		}
+	}
+
 	@ParameterizedTest
 	@ValueSource(ints = { 1, 2, 3, 5, 50 })
 	void testPosterise(int n) {
@@ -190,6 +237,743 @@ class PeasyGradientsTests {
 		assertEquals(n, makeUnique(g.pixels).length);
 	}
 
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 8 * 8, 20 * 20 })
+	void testMirroredRendering(int tileArea) {
+		final int w = 100, h = 70;
+		PImage g = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients(g);
+		pg.setTileArea(tileArea);
+		pg.setParallelThreshold(0);
+		pg.setDitherStrength(0);
+		Gradient gradient = new Gradient(Palette.tetradic());
+
+		// mirror axes between pixels (x) and on a pixel (y), off-center
+		pg.diamondGradient(gradient, new PVector(30.5f, 40), 0, 1);
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				final int pixel = g.pixels[y * w + x];
+				assertNotEquals(0, pixel, "Pixel not written at x=" + x + ", y=" + y);
+				if (61 - x >= 0 && 61 - x < w) {
+					assertEquals(pixel, g.pixels[y * w + 61 - x], "Not mirrored at x=" + x + ", y=" + y);
+				}
+				if (80 - y >= 0 && 80 - y < h) {
+					assertEquals(pixel, g.pixels[(80 - y) * w + x], "Not mirrored at x=" + x + ", y=" + y);
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 3, 4, 5, 6, 8 })
+	void testMirroredPolygon(int sides) {
+		final int w = 100, h = 70;
+		PImage mirrored = new PImage(w, h);
+		PImage direct = new PImage(w, h);
+		Gradient gradient = new Gradient(Palette.tetradic());
+		PeasyGradients pg = new PeasyGradients(mirrored);
+		pg.setDitherStrength(0);
+		pg.polygonGradient(gradient, new PVector(30.5f, 40), 0, 1, sides);
+		pg.setRenderTarget(direct);
+		pg.setSourceOver(true); // (renders every pixel directly, onto an empty target)
+		pg.polygonGradient(gradient, new PVector(30.5f, 40), 0, 1, sides);
+		assertArrayEquals(direct.pixels, mirrored.pixels);
+
+		// symmetric about the horizontal axis; and the vertical axis when sides is even
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				final int pixel = mirrored.pixels[y * w + x];
+				if (sides % 2 == 0 && 61 - x >= 0 && 61 - x < w) {
+					assertEquals(pixel, mirrored.pixels[y * w + 61 - x], "Not mirrored at x=" + x + ", y=" + y);
+				}
+				if (80 - y >= 0 && 80 - y < h) {
+					assertEquals(pixel, mirrored.pixels[(80 - y) * w + x], "Not mirrored at x=" + x + ", y=" + y);
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(DitherType.class)
+	void testDitherTypes(DitherType ditherType) {
+		final int size = ditherType.size();
+		assertEquals(0, size & (size - 1), "Texture size must be a power of 2");
+		double sum = 0;
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				final double d = ditherType.sample(x, y);
+				assertTrue(d >= -1 && d <= 1);
+				assertEquals(d, ditherType.sample(x + size, y - size)); // tiles
+				sum += d;
+			}
+		}
+		assertEquals(0, sum / (size * size), 0.05);
+		if (ditherType != DitherType.INTERLEAVED_GRADIENT_NOISE) { // threshold matrices
+			final double[] values = new double[size * size];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = ditherType.sample(i % size, i / size);
+			}
+			assertEquals(values.length, Arrays.stream(values).distinct().count());
+		}
+
+		PImage g = new PImage(120, 80);
+		PeasyGradients pg = new PeasyGradients(g);
+		pg.setDitherType(ditherType);
+		pg.setDitherStrength(0.05);
+		pg.conicGradient(new Gradient(Palette.tetradic()), new PVector(50, 30), 0);
+		for (int pixel : g.pixels) {
+			assertNotEquals(0, pixel);
+		}
+	}
+
+	@Test
+	void testLutReuse() {
+		PImage g = new PImage(64, 64);
+		PeasyGradients pg = new PeasyGradients(g);
+		pg.setDitherStrength(0);
+		Gradient gradient = new Gradient(WHITE, BLACK);
+
+		pg.linearGradient(gradient, 0);
+		final int[] first = g.pixels.clone();
+		pg.linearGradient(gradient, 0); // LUT reused
+		assertArrayEquals(first, g.pixels);
+
+		gradient.setStopColor(1, WHITE); // LUT invalidated
+		pg.linearGradient(gradient, 0);
+		for (int pixel : g.pixels) {
+			assertEquals(WHITE, pixel);
+		}
+
+		pg.linearGradient(new Gradient(WHITE, BLACK), 0); // another gradient
+		assertArrayEquals(first, g.pixels);
+
+		gradient.setStopColor(1, BLACK);
+		gradient.interpolationMode = Interpolation.CUBIC; // direct field change
+		pg.linearGradient(gradient, 0);
+		assertFalse(Arrays.equals(first, g.pixels));
+	}
+
+	@ParameterizedTest
+	@EnumSource(value = ColorSpace.class, names = { "RGB", "OKLAB" })
+	void testPerPixelSampling(ColorSpace colorSpace) {
+		PImage g = new PImage(90, 60);
+		PeasyGradients pg = new PeasyGradients(g);
+		pg.setDitherStrength(0);
+		Gradient gradient = new Gradient(Palette.tetradic());
+		gradient.setColorSpace(colorSpace);
+
+		pg.radialGradient(gradient, new PVector(30, 20), 1);
+		final int[] lut = g.pixels.clone();
+		pg.setPerPixelSampling(true);
+		pg.radialGradient(gradient, new PVector(30, 20), 1);
+		for (int i = 0; i < lut.length; i++) {
+			for (int shift = 0; shift < 32; shift += 8) { // differ only by the LUT's quantization of steps
+				assertEquals(lut[i] >> shift & 0xff, g.pixels[i] >> shift & 0xff, 8, "Pixel " + i);
+			}
+		}
+
+		pg.posterise(4); // needs the LUT
+		pg.radialGradient(gradient, new PVector(30, 20), 1);
+		assertEquals(4, makeUnique(g.pixels).length);
+	}
+
+	@Test
+	void testAnimatedLutRotation() {
+		PImage lut = new PImage(90, 60);
+		PImage exact = new PImage(90, 60);
+		PeasyGradients pgLut = new PeasyGradients(lut);
+		PeasyGradients pgExact = new PeasyGradients(exact);
+		pgLut.setDitherStrength(0);
+		pgExact.setDitherStrength(0);
+		pgExact.setPerPixelSampling(true);
+		Gradient gradient = new Gradient(BLACK, WHITE, BLACK);
+		gradient.primeAnimation();
+		final int period = 3 * 90 - 1; // LUT colors repeat with a period of one less than the LUT size
+
+		for (int frame = 0; frame < 16; frame++) {
+			if (frame % 2 == 0) {
+				gradient.setOffset((frame < 8 ? 17 : -19) * frame / (double) period); // whole LUT entries
+			} else {
+				gradient.animate(frame < 8 ? 0.0731 : -0.1143); // between LUT entries: rounded to the nearest
+			}
+			pgLut.conicGradient(gradient, new PVector(40, 25), 0);
+			pgExact.conicGradient(gradient, new PVector(40, 25), 0);
+			// LUT quantization, plus up to half an entry from rounding the offset
+			for (int i = 0; i < lut.pixels.length; i++) {
+				for (int shift = 0; shift < 32; shift += 8) {
+					assertEquals(exact.pixels[i] >> shift & 0xff, lut.pixels[i] >> shift & 0xff, 7, "Frame " + frame + ", pixel " + i);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testAnimatedLutNotResampled() {
+		PImage animated = new PImage(90, 60);
+		PImage rotated = new PImage(90, 60);
+		PeasyGradients pgAnimated = new PeasyGradients(animated);
+		PeasyGradients pgRotated = new PeasyGradients(rotated);
+		Gradient gradient = new Gradient(BLACK, WHITE, BLACK);
+		Gradient whole = new Gradient(BLACK, WHITE, BLACK);
+		final int period = 3 * 90 - 1;
+
+		for (int frame = 0; frame < 8; frame++) {
+			gradient.animate(0.0731);
+			// rotating the LUT by the offset must give the LUT at the nearest whole entry
+			whole.setOffset(Math.rint(gradient.getOffset() * period) / period);
+			pgAnimated.conicGradient(gradient, new PVector(40, 25), 0);
+			pgRotated.conicGradient(whole, new PVector(40, 25), 0);
+			assertArrayEquals(rotated.pixels, animated.pixels, "Frame " + frame);
+		}
+	}
+
+	@Test
+	void testAnimatedPosterisedLut() {
+		PImage image = new PImage(120, 10);
+		PeasyGradients pg = new PeasyGradients(image);
+		pg.posterise(6);
+		Gradient gradient = new Gradient(BLACK, WHITE, BLACK);
+		gradient.primeAnimation();
+		final int[] expected = new int[6];
+
+		for (int frame = 0; frame < 12; frame++) {
+			gradient.animate(0.0731); // a fraction of a band
+			pg.linearGradient(gradient, new PVector(0, 5), new PVector(image.width, 5));
+			gradient.fillColors(expected, gradient.getOffset());
+
+			// the bands of the posterised gradient must have its exactly resampled colors, in order
+			assertArrayEquals(distinctRuns(expected, 0, expected.length), distinctRuns(image.pixels, 5 * image.width, image.width),
+					"Frame " + frame);
+		}
+	}
+
+	/**
+	 * @return values[from, from + count), with consecutive repeated values removed
+	 */
+	private static int[] distinctRuns(int[] values, int from, int count) {
+		final int[] runs = new int[count];
+		int length = 0;
+		for (int i = from; i < from + count; i++) {
+			if (length == 0 || runs[length - 1] != values[i]) {
+				runs[length++] = values[i];
+			}
+		}
+		return Arrays.copyOf(runs, length);
+	}
+
+	@Test
+	void testStepFieldRetention() {
+		PImage retained = new PImage(90, 60);
+		PImage direct = new PImage(90, 60);
+		PeasyGradients pgRetained = new PeasyGradients(retained);
+		PeasyGradients pgDirect = new PeasyGradients(direct);
+		pgRetained.setStepFieldRetention(true);
+		pgRetained.setParallelThreshold(0);
+		pgRetained.setTileArea(16 * 16);
+		Gradient gradient = new Gradient(Palette.tetradic());
+		gradient.primeAnimation();
+
+		for (int frame = 0; frame < 12; frame++) {
+			gradient.animate(0.0731);
+			if (frame == 4) {
+				gradient.setStopPosition(1, 0.3); // colors change, field retained
+			}
+			if (frame == 8) {
+				pgRetained.posterise(16);
+				pgDirect.posterise(16);
+			}
+			final double angle = frame < 6 ? 0 : 1; // geometry changes, field recomputed
+			pgRetained.radialGradient(gradient, new PVector(45, 30), 1); // mirrored
+			pgDirect.radialGradient(gradient, new PVector(45, 30), 1);
+			assertArrayEquals(direct.pixels, retained.pixels, "Radial, frame " + frame);
+			pgRetained.conicGradient(gradient, new PVector(40, 25), angle);
+			pgDirect.conicGradient(gradient, new PVector(40, 25), angle);
+			assertArrayEquals(direct.pixels, retained.pixels, "Conic, frame " + frame);
+			pgRetained.noiseGradient(gradient, new PVector(40, 25), angle, 1);
+			pgDirect.noiseGradient(gradient, new PVector(40, 25), angle, 1);
+			assertArrayEquals(direct.pixels, retained.pixels, "Noise, frame " + frame);
+		}
+	}
+
+	@Test
+	void testPolarFieldCaching() {
+		PImage cached = new PImage(90, 60);
+		PImage direct = new PImage(90, 60);
+		PeasyGradients pgCached = new PeasyGradients(cached);
+		PeasyGradients pgDirect = new PeasyGradients(direct);
+		pgCached.setPolarFieldCaching(true);
+		pgCached.setParallelThreshold(0);
+		pgCached.setTileArea(16 * 16);
+		Gradient gradient = new Gradient(BLACK, WHITE, BLACK);
+
+		for (int frame = 0; frame < 8; frame++) {
+			final PVector center = frame < 4 ? new PVector(40, 25) : new PVector(10, 50); // fields recomputed
+			pgCached.conicGradient(gradient, center, frame * 0.7);
+			pgDirect.conicGradient(gradient, center, frame * 0.7);
+			assertSimilar(direct.pixels, cached.pixels, "Conic, frame " + frame);
+			pgCached.spiralGradient(gradient, center, frame * 0.7, 1 + frame * 0.5, frame < 2 ? 1 : 2);
+			pgDirect.spiralGradient(gradient, center, frame * 0.7, 1 + frame * 0.5, frame < 2 ? 1 : 2);
+			assertSimilar(direct.pixels, cached.pixels, "Spiral, frame " + frame);
+		}
+	}
+
+	@Test
+	void testInteractiveMode() {
+		PImage interactive = new PImage(90, 60);
+		PImage direct = new PImage(90, 60);
+		PeasyGradients pgInteractive = new PeasyGradients(interactive);
+		PeasyGradients pgDirect = new PeasyGradients(direct);
+		pgInteractive.setInteractiveMode(true);
+		pgInteractive.setDitherStrength(0); // dither would be translated with the gradient
+		pgDirect.setDitherStrength(0);
+		Gradient gradient = new Gradient(Palette.tetradic());
+
+		// whole-pixel drags are exact; leaving the field's margin re-renders the field
+		final float[][] drag = { { 40.5f, 30 }, { 45.5f, 31 }, { 82.5f, 8 }, { 12.5f, 52 }, { -30, 20 }, { -45, 25 }, { 40, 30.5f } };
+		for (int type = 0; type < 3; type++) {
+			for (int i = 0; i < drag.length; i++) {
+				final PVector center = new PVector(drag[i][0], drag[i][1]);
+				if (i == 3) {
+					gradient.setStopPosition(1, 0.3 + type * 0.1); // colors change
+				}
+				for (PeasyGradients pg : new PeasyGradients[] { pgInteractive, pgDirect }) {
+					if (type == 0) {
+						pg.radialGradient(gradient, center, 1);
+					} else if (type == 1) {
+						pg.diamondGradient(gradient, center, 0.3, 1);
+					} else {
+						pg.polygonGradient(gradient, center, 0.3, 1, 5);
+					}
+				}
+				assertArrayEquals(direct.pixels, interactive.pixels, "Type " + type + " at " + center);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4 })
+	void testAntiAliasing(int samples) {
+		final int w = 120, h = 90;
+		PImage aliased = new PImage(w, h);
+		PImage antiAliased = new PImage(w, h);
+		PeasyGradients pgAliased = new PeasyGradients(aliased);
+		PeasyGradients pgAntiAliased = new PeasyGradients(antiAliased);
+		pgAliased.posterise(4);
+		pgAntiAliased.posterise(4);
+		pgAntiAliased.setAntiAliasing(samples);
+		Gradient gradient = new Gradient(BLACK, WHITE);
+
+		pgAliased.conicGradient(gradient, new PVector(50, 40), 0.3);
+		pgAntiAliased.conicGradient(gradient, new PVector(50, 40), 0.3);
+
+		int smoothed = 0;
+		for (int y = 1; y < h - 1; y++) {
+			for (int x = 1; x < w - 1; x++) {
+				final int i = y * w + x;
+				final int c = aliased.pixels[i];
+				final boolean edge = c != aliased.pixels[i - 1] || c != aliased.pixels[i + 1] || c != aliased.pixels[i - w] || c != aliased.pixels[i + w];
+				if (!edge) {
+					assertEquals(c, antiAliased.pixels[i], "Pixel away from edges changed at x=" + x + ", y=" + y);
+				} else if (c != antiAliased.pixels[i]) {
+					smoothed++;
+					final int grey = antiAliased.pixels[i] & 0xff;
+					assertEquals(grey, antiAliased.pixels[i] >> 8 & 0xff); // blend of greys is grey
+				}
+			}
+		}
+		assertTrue(smoothed > 0, "No edge pixels were smoothed");
+	}
+
+	@ParameterizedTest
+	@EnumSource(BlendMode.class)
+	void testLayers(BlendMode blendMode) {
+		final int w = 90, h = 60;
+		Gradient base = new Gradient(Palette.tetradic());
+		Gradient middle = new Gradient(Palette.tetradic());
+		Gradient top = new Gradient(Palette.tetradic());
+		PVector center = new PVector(40, 25);
+
+		// each layer rendered separately
+		PImage[] separate = { new PImage(w, h), new PImage(w, h), new PImage(w, h) };
+		PeasyGradients pg = new PeasyGradients(separate[0]);
+		pg.linearGradient(base, 0.4);
+		pg.setRenderTarget(separate[1]);
+		pg.radialGradient(middle, center, 1);
+		pg.setRenderTarget(separate[2]);
+		pg.noiseGradient(top, center, 0, 1);
+
+		PImage layered = new PImage(w, h);
+		PeasyGradients pgLayered = new PeasyGradients(layered);
+		pgLayered.setParallelThreshold(0);
+		pgLayered.setTileArea(16 * 16);
+		pgLayered.beginLayers();
+		pgLayered.linearGradient(base, 0.4);
+		pgLayered.setLayerBlend(blendMode, 0.6);
+		pgLayered.radialGradient(middle, center, 1);
+		pgLayered.setLayerBlend(BlendMode.SCREEN, 1);
+		pgLayered.noiseGradient(top, center, 0, 1);
+		assertFalse(Arrays.stream(layered.pixels).anyMatch(c -> c != 0), "Rendered while recording layers");
+		pgLayered.endLayers();
+
+		final int opacity = (int) Math.round(0.6 * 255);
+		for (int i = 0; i < layered.pixels.length; i++) {
+			int expected = blendMode.composite(separate[0].pixels[i], separate[1].pixels[i], opacity);
+			expected = BlendMode.SCREEN.composite(expected, separate[2].pixels[i], 255);
+			assertEquals(expected, layered.pixels[i], "Pixel " + i);
+		}
+	}
+
+	@Test
+	void testBlendModes() {
+		final int backdrop = ColorUtils.RGB255ToRGB255(200, 100, 0);
+		final int source = ColorUtils.RGB255ToRGB255(100, 100, 255);
+		assertEquals(source, BlendMode.NORMAL.composite(backdrop, source, 255));
+		assertEquals(backdrop, BlendMode.NORMAL.composite(backdrop, source, 0));
+		assertEquals(ColorUtils.RGB255ToRGB255(150, 100, 128), BlendMode.NORMAL.composite(backdrop, source, 128));
+		assertEquals(ColorUtils.RGB255ToRGB255(78, 39, 0), BlendMode.MULTIPLY.composite(backdrop, source, 255));
+		assertEquals(ColorUtils.RGB255ToRGB255(222, 161, 255), BlendMode.SCREEN.composite(backdrop, source, 255));
+		assertEquals(ColorUtils.RGB255ToRGB255(255, 200, 255), BlendMode.ADD.composite(backdrop, source, 255));
+		assertEquals(ColorUtils.RGB255ToRGB255(100, 0, 0), BlendMode.SUBTRACT.composite(backdrop, source, 255));
+		assertEquals(ColorUtils.RGB255ToRGB255(100, 0, 255), BlendMode.DIFFERENCE.composite(backdrop, source, 255));
+		assertEquals(ColorUtils.RGB255ToRGB255(100, 100, 0), BlendMode.DARKEST.composite(backdrop, source, 255));
+		assertEquals(ColorUtils.RGB255ToRGB255(200, 100, 255), BlendMode.LIGHTEST.composite(backdrop, source, 255));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void testSourceOver(boolean premultiplied) {
+		final int w = 90, h = 60;
+		Gradient gradient = new Gradient(0x80FF0000, 0x200000FF, 0xFF00FF00, 0x00FFFFFF);
+		PVector center = new PVector(40, 25);
+
+		PImage source = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients(source);
+		pg.radialGradient(gradient, center, 1);
+
+		PImage target = new PImage(w, h);
+		for (int i = 0; i < target.pixels.length; i++) {
+			target.pixels[i] = ColorUtils.RGB255ToRGB255(i % w * 2, i / w * 4, 200) & (i % 3 == 0 ? 0x80FFFFFF : -1);
+		}
+		final int[] backdrop = target.pixels.clone();
+		PeasyGradients pgOver = new PeasyGradients(target);
+		pgOver.setParallelThreshold(0);
+		pgOver.setTileArea(16 * 16);
+		pgOver.setSourceOver(true, premultiplied);
+		pgOver.radialGradient(gradient, center, 1);
+
+		for (int i = 0; i < target.pixels.length; i++) {
+			final int expected = sourceOver(backdrop[i], source.pixels[i], premultiplied);
+			for (int shift = 0; shift < 32; shift += 8) {
+				assertEquals(expected >> shift & 0xff, target.pixels[i] >> shift & 0xff, 1, "Pixel " + i);
+			}
+		}
+	}
+
+	@Test
+	void testSourceOverColors() {
+		// straight alpha
+		assertEquals(0x80FF0000, BlendMode.NORMAL.composite(0x00000000, 0x80FF0000, 255)); // over transparent
+		assertEquals(0xFF80007F, BlendMode.NORMAL.composite(0xFF0000FF, 0x80FF0000, 255)); // over opaque
+		assertEquals(0xC0AA0055, BlendMode.NORMAL.composite(0x800000FF, 0x80FF0000, 255)); // over translucent
+		assertEquals(0xFF0000FF, BlendMode.NORMAL.composite(0xFF0000FF, 0x00FF0000, 255));
+		// premultiplied alpha
+		assertEquals(0x80800000, ColorUtils.sourceOverPremultiplied(0x00000000, 0x80FF0000));
+		assertEquals(0xFF80007F, ColorUtils.sourceOverPremultiplied(0xFF0000FF, 0x80FF0000));
+		assertEquals(0xC0800040, ColorUtils.sourceOverPremultiplied(0x80000080, 0x80FF0000));
+	}
+
+	/**
+	 * Reference (floating-point) Porter-Duff source-over of a straight-alpha source
+	 * color over a backdrop color.
+	 */
+	private static int sourceOver(int backdrop, int source, boolean premultiplied) {
+		final double sa = (source >>> 24) / 255d, da = (backdrop >>> 24) / 255d;
+		final double outAlpha = sa + da * (1 - sa);
+		int out = (int) Math.round(outAlpha * 255) << 24;
+		for (int shift = 0; shift < 24; shift += 8) {
+			final double sc = source >> shift & 0xff, dc = backdrop >> shift & 0xff;
+			final double c;
+			if (premultiplied) {
+				c = sc * sa + dc * (1 - sa);
+			} else {
+				c = outAlpha == 0 ? 0 : (sc * sa + dc * da * (1 - sa)) / outAlpha;
+			}
+			out |= (int) Math.round(c) << shift;
+		}
+		return out;
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 8 })
+	void testPreviewQuality(int downscale) {
+		final int w = 200, h = 150;
+		Gradient gradient = new Gradient(Palette.tetradic());
+		PVector center = new PVector(83, 61);
+
+		PImage reference = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients(reference);
+		pg.conicGradient(gradient, center, 0.5);
+
+		PImage preview = new PImage(w, h);
+		PeasyGradients pgPreview = new PeasyGradients(preview);
+		pgPreview.setParallelThreshold(0);
+		pgPreview.setTileArea(20 * 20);
+		pgPreview.setPreviewQuality(downscale);
+		pgPreview.conicGradient(gradient, center, 0.5);
+
+		int differing = 0;
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				final int i = y * w + x;
+				if (x % downscale == 0 && y % downscale == 0) { // grid node: step computed exactly
+					assertEquals(reference.pixels[i], preview.pixels[i], "Pixel " + x + ", " + y);
+				}
+				for (int shift = 0; shift < 24; shift += 8) {
+					if (Math.abs((reference.pixels[i] >> shift & 0xff) - (preview.pixels[i] >> shift & 0xff)) > 16) {
+						differing++;
+						break;
+					}
+				}
+			}
+		}
+		assertTrue(differing < w * h / 50, differing + " pixels differ");
+
+		pgPreview.refine();
+		assertArrayEquals(reference.pixels, preview.pixels);
+
+		// clipped gradients are rendered at full resolution
+		final ClipShape circle = ClipShape.circle(center, 40);
+		pg.setClipShape(circle);
+		pgPreview.setClipShape(circle);
+		pg.radialGradient(gradient, center, 1);
+		pgPreview.radialGradient(gradient, center, 1);
+		assertArrayEquals(reference.pixels, preview.pixels);
+	}
+
+	@Test
+	void testClipShape() {
+		final int w = 90, h = 60;
+		final int sentinel = ColorUtils.RGB255ToRGB255(1, 2, 3);
+		Gradient gradient = new Gradient(Palette.tetradic());
+		PVector center = new PVector(45, 30);
+
+		PImage reference = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients(reference);
+		pg.setRenderTarget(reference, 10, 5, 70, 50);
+		pg.radialGradient(gradient, center, 1);
+
+		final ClipShape circle = ClipShape.circle(new PVector(40, 30), 18.5);
+		final ClipShape rect = ClipShape.roundedRect(20, 10, 40.2, 30, 0);
+		final ClipShape square = ClipShape.polygon(
+				Arrays.asList(new PVector(20, 10), new PVector(60.2f, 10), new PVector(60.2f, 40), new PVector(20, 40)));
+		for (ClipShape clip : new ClipShape[] { circle, rect, square }) {
+			PImage clipped = new PImage(w, h);
+			Arrays.fill(clipped.pixels, sentinel);
+			PeasyGradients pgClipped = new PeasyGradients(clipped);
+			pgClipped.setParallelThreshold(0);
+			pgClipped.setTileArea(16 * 16);
+			pgClipped.setRenderTarget(clipped, 10, 5, 70, 50);
+			pgClipped.setClipShape(clip);
+			pgClipped.radialGradient(gradient, center, 1);
+
+			for (int y = 0; y < h; y++) {
+				for (int x = 0; x < w; x++) {
+					final double px = x + 0.5, py = y + 0.5;
+					boolean inside = clip == circle ? Math.hypot(px - 40, py - 30) < 18.5 : px > 20 && px < 60.2 && py > 10 && py < 40;
+					inside &= x >= 10 && x < 80 && y >= 5 && y < 55; // within render region
+					final int i = y * w + x;
+					assertEquals(inside ? reference.pixels[i] : sentinel, clipped.pixels[i], "Pixel " + x + ", " + y);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testMaskClipShape() {
+		final int w = 90, h = 60;
+		final int sentinel = ColorUtils.RGB255ToRGB255(1, 2, 3);
+		Gradient gradient = new Gradient(Palette.tetradic());
+
+		PImage reference = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients(reference);
+		pg.conicGradient(gradient, new PVector(30, 20), 0.5);
+
+		PImage mask = new PImage(w / 2, h);
+		for (int i = 0; i < mask.pixels.length; i++) {
+			final int value = i % mask.width * 6 % 256;
+			mask.pixels[i] = ColorUtils.RGB255ToRGB255(value, value, value);
+		}
+		PImage clipped = new PImage(w, h);
+		Arrays.fill(clipped.pixels, sentinel);
+		PeasyGradients pgClipped = new PeasyGradients(clipped);
+		pgClipped.setClipShape(ClipShape.mask(mask));
+		pgClipped.conicGradient(gradient, new PVector(30, 20), 0.5);
+
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				final int i = y * w + x;
+				final int coverage = x < mask.width ? mask.pixels[y * mask.width + x] & 0xff : 0;
+				final int expected = coverage == 0 ? sentinel
+						: ((reference.pixels[i] >>> 24) * coverage + 127) / 255 << 24 | (reference.pixels[i] & 0xFFFFFF);
+				assertEquals(expected, clipped.pixels[i], "Pixel " + x + ", " + y);
+			}
+		}
+
+		pgClipped.clearClipShape();
+		pgClipped.conicGradient(gradient, new PVector(30, 20), 0.5);
+		assertArrayEquals(reference.pixels, clipped.pixels);
+	}
+
+	@Test
+	void testRenderAsync() throws Exception {
+		final int w = 90, h = 60;
+		Gradient gradient = new Gradient(Palette.tetradic());
+		PVector center = new PVector(40, 25);
+
+		PImage expected = new PImage(w, h);
+		PeasyGradients pgExpected = new PeasyGradients(expected);
+		pgExpected.radialGradient(gradient, center, 1);
+
+		PImage target = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients(target);
+		final int[] front = target.pixels;
+		assertSame(target, pg.renderAsync(r -> r.radialGradient(gradient, center, 1)).get(10, TimeUnit.SECONDS));
+		assertNotSame(front, target.pixels, "Back buffer not swapped");
+		assertArrayEquals(expected.pixels, target.pixels);
+
+		// pixels beyond the render region are kept
+		final int sentinel = ColorUtils.RGB255ToRGB255(1, 2, 3);
+		Arrays.fill(expected.pixels, sentinel);
+		Arrays.fill(target.pixels, sentinel);
+		pgExpected.setRenderTarget(expected, 10, 5, 50, 40);
+		pgExpected.conicGradient(gradient, center, 0.5);
+		pg.setRenderTarget(target, 10, 5, 50, 40);
+		pg.renderAsync(r -> r.conicGradient(gradient, center, 0.5)).get(10, TimeUnit.SECONDS);
+		assertArrayEquals(expected.pixels, target.pixels);
+	}
+
+	@Test
+	void testRenderAsyncAbandoned() throws Exception {
+		final int w = 1000, h = 1000;
+		Gradient gradient = new Gradient(Palette.tetradic());
+		PVector center = new PVector(400, 500);
+		PImage target = new PImage(w, h);
+		PeasyGradients pg = new PeasyGradients(target);
+		final Consumer<PeasyGradients> slow = r -> r.fractalNoiseGradient(gradient, center, 0, 1, NoiseType.OpenSimplex2, FractalType.FBm, 8, 0.5,
+				2);
+
+		final int[] front = target.pixels;
+		CompletableFuture<PImage> timedOut = pg.renderAsync(slow, 1, TimeUnit.MILLISECONDS);
+		ExecutionException e = assertThrows(ExecutionException.class, () -> timedOut.get(10, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof TimeoutException);
+		assertSame(front, target.pixels, "Target swapped by a timed out render");
+
+		CompletableFuture<PImage> stale = pg.renderAsync(slow);
+		CompletableFuture<PImage> latest = pg.renderAsync(r -> r.radialGradient(gradient, center, 1));
+		assertTrue(stale.isCancelled(), "Stale render not superseded");
+		latest.get(10, TimeUnit.SECONDS);
+
+		PImage expected = new PImage(w, h);
+		new PeasyGradients(expected).radialGradient(gradient, center, 1);
+		assertArrayEquals(expected.pixels, target.pixels);
+	}
+
+	/**
+	 * Asserts the pixels are the same, but for a few pixels that differ by a
+	 * neighbouring LUT color (as float fields may round differently).
+	 */
+	private static void assertSimilar(int[] expected, int[] actual, String message) {
+		int differing = 0;
+		for (int i = 0; i < expected.length; i++) {
+			if (expected[i] != actual[i]) {
+				differing++;
+				for (int shift = 0; shift < 32; shift += 8) {
+					assertEquals(expected[i] >> shift & 0xff, actual[i] >> shift & 0xff, 4, message + ", pixel " + i);
+				}
+			}
+		}
+		assertTrue(differing < expected.length / 100, message + ": " + differing + " pixels differ");
+	}
+
+	@Test
+	void testSmallRenderInline() {
+		PImage g = new PImage(48, 32);
+		PeasyGradients pg = new PeasyGradients(g);
+		Gradient gradient = new Gradient(Palette.tetradic());
+		PVector center = new PVector(20, 10);
+
+		pg.conicGradient(gradient, center, 0.5); // below default threshold: renders inline
+		final int[] expected = g.pixels.clone();
+
+		Arrays.fill(g.pixels, 0);
+		pg.setParallelThreshold(0);
+		pg.setTileArea(8 * 8);
+		pg.conicGradient(gradient, center, 0.5);
+		assertArrayEquals(expected, g.pixels);
+	}
+
+	@Test
+	void testExecutors() {
+		PImage g = new PImage(300, 200);
+		PeasyGradients pg = new PeasyGradients(g);
+		pg.setTileArea(32 * 32);
+		Gradient gradient = new Gradient(Palette.tetradic());
+		PVector center = new PVector(100, 80);
+
+		pg.radialGradient(gradient, center, 1);
+		final int[] expected = g.pixels.clone();
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Arrays.fill(g.pixels, 0);
+			pg.setExecutor(executor);
+			pg.radialGradient(gradient, center, 1);
+			assertArrayEquals(expected, g.pixels);
+		} finally {
+			executor.shutdown();
+		}
+
+		Arrays.fill(g.pixels, 0);
+		pg.setExecutor(null);
+		pg.setCallerRuns(true);
+		pg.radialGradient(gradient, center, 1);
+		assertArrayEquals(expected, g.pixels);
+
+		// library pool is recreated after shutdown
+		Arrays.fill(g.pixels, 0);
+		pg.setCallerRuns(false);
+		PeasyGradients.shutdown();
+		pg.radialGradient(gradient, center, 1);
+		assertArrayEquals(expected, g.pixels);
+	}
+
+	@Test
+	void testExecutorInterrupted() throws Exception {
+		PImage g = new PImage(300, 200);
+		PeasyGradients pg = new PeasyGradients(g);
+		pg.setTileArea(32 * 32);
+		pg.setParallelThreshold(0);
+		Gradient gradient = new Gradient(Palette.tetradic());
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		final CountDownLatch release = new CountDownLatch(1);
+		try {
+			executor.execute(() -> { // hold the executor, so tiles are still queued when interrupted
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+				}
+			});
+			pg.setExecutor(executor);
+			Thread.currentThread().interrupt();
+			assertThrows(CancellationException.class, () -> pg.radialGradient(gradient, new PVector(100, 80), 1));
+			assertTrue(Thread.interrupted(), "Interrupt not restored");
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
 	private static int[] makeUnique(int... values) {
 		return Arrays.stream(values).distinct().toArray();
 	}
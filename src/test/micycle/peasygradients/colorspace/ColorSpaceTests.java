@@ -1,6 +1,9 @@
 package micycle.peasygradients.colorspace;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
@@ -38,6 +41,25 @@ class ColorSpaceTests {
 		}
 	}
 
+	/**
+	 * Tests that converting into a given (or the input) array matches the
+	 * allocating conversion.
+	 */
+	@ParameterizedTest
+	@EnumSource(ColorSpace.class)
+	void testToRGBOutputArray(ColorSpace colorSpace) {
+		final ColorSpaceTransform space = colorSpace.getColorSpace();
+		final double[] out = new double[3];
+		for (int i = 0; i < 1000; i++) {
+			final double[] color = space.fromRGB(new double[] { Math.random(), Math.random(), Math.random() });
+			final double[] expected = space.toRGB(color.clone());
+			assertArrayEquals(expected, space.toRGB(color.clone(), out));
+			final double[] inPlace = color.clone();
+			space.toRGB(inPlace, inPlace);
+			assertArrayEquals(expected, Arrays.copyOf(inPlace, 3));
+		}
+	}
+
 	@Test
 	void testRYB() {
 		ColorSpaceTransform ryb = new RYB();